@@ -0,0 +1,35 @@
+package com.nutricion.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Codificaciones binarias de las respuestas, elegidas con la cabecera Accept:
+ * application/cbor y application/x-jackson-smile. También se aceptan como
+ * Content-Type de los cuerpos de petición.
+ *
+ * Spring MVC ya registra estos convertidores cuando las librerías están en el
+ * classpath, pero con un ObjectMapper propio que ignora la configuración de
+ * spring.jackson.* (por ejemplo, escribiría las fechas como arrays). Declararlos
+ * aquí con el Jackson2ObjectMapperBuilder de Spring Boot los sustituye en la misma
+ * posición, detrás del de JSON, de modo que JSON sigue siendo la respuesta cuando
+ * no hay Accept o es *&#47;*.
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,61 @@
+package com.nutricion.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.nutricion.entity.Anthropometry;
+import com.nutricion.entity.Biometrics;
+import com.nutricion.entity.ClinicalHistory;
+import com.nutricion.entity.Patient;
+import com.nutricion.entity.User;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Regiones de la caché de segundo nivel de Hibernate, en memoria con Caffeine.
+ *
+ * Cada entidad cacheada tiene su región, acotada por tamaño y por tiempo desde la
+ * última escritura. La estrategia READ_WRITE actualiza la caché al confirmar cada
+ * transacción, así que los cambios hechos con JPA (PatientService, importación)
+ * nunca dejan datos viejos en este nodo; el TTL acota cuánto tarda en verse un
+ * cambio hecho desde otra instancia. Las regiones se crean aquí y Hibernate falla
+ * al arrancar si falta alguna (hibernate.javax.cache.missing_cache_strategy=fail).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    private static final Class<?>[] CACHED_ENTITIES = {
+            Patient.class, ClinicalHistory.class, Biometrics.class, Anthropometry.class, User.class
+    };
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.entities.max-size:10000}") long maxSize,
+                                              @Value("${app.cache.entities.ttl:10m}") Duration ttl) {
+        // URI propia por contexto: el proveedor JCache comparte gestores por URI dentro de la JVM
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (Class<?> entity : CACHED_ENTITIES) {
+            CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+            region.setMaximumSize(OptionalLong.of(maxSize));
+            region.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(entity.getName(), region);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -1,7 +1,12 @@
 package com.nutricion.config;
 
+import com.nutricion.security.BoundedPasswordEncoder;
 import com.nutricion.security.CustomUserDetailsService;
+import com.nutricion.security.PasswordStrengthCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +20,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -29,37 +37,67 @@ public class SecurityConfig {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Fuerza 12: ~300 ms por hash; resistencia contra GPUs modernas
-        return new BCryptPasswordEncoder(12);
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${app.security.password-hashing.strength:0}") int strength,
+            @Value("${app.security.password-hashing.target-latency:300ms}") Duration targetLatency,
+            @Value("${app.security.password-hashing.min-strength:12}") int minStrength,
+            @Value("${app.security.password-hashing.max-strength:14}") int maxStrength) {
+        // Fuerza fija si se configura; si no, la mayor que cumpla el objetivo de latencia en este nodo
+        // (~300 ms por hash, resistencia contra GPUs modernas). Los hashes más débiles se
+        // actualizan en el siguiente login correcto (UserDetailsPasswordService).
+        int bcryptStrength = strength > 0
+                ? strength
+                : PasswordStrengthCalibrator.calibrate(targetLatency, minStrength, maxStrength);
+        // Se ejecuta en un pool acotado (por defecto un hilo por núcleo) para no agotar los hilos de Tomcat
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), poolSize, queueCapacity,
+                meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http,
+                                                       DaoAuthenticationProvider authenticationProvider) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = 
             http.getSharedObject(AuthenticationManagerBuilder.class);
         authenticationManagerBuilder
-            .authenticationProvider(authenticationProvider());
+            .authenticationProvider(authenticationProvider);
         return authenticationManagerBuilder.build();
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${server.port:8080}") int serverPort,
+                                           @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        // Prometheus no puede renovar un JWT: el scrape se permite sin token solo en el puerto de
+        // gestión, cuando es distinto del de la API y no se publica fuera de la red interna
+        boolean separateManagementPort = managementPort > 0 && managementPort != serverPort;
+        RequestMatcher prometheusScrape = request -> separateManagementPort
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/auth/login").permitAll()
+                // El despacho ASYNC de respuestas en streaming ya fue autorizado en la petición original
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(prometheusScrape).permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
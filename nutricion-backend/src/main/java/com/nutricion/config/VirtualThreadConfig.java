@@ -0,0 +1,57 @@
+package com.nutricion.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Modo opcional de ejecución sobre hilos virtuales (spring.threads.virtual.enabled=true).
+ *
+ * Spring Boot ya hace que Tomcat atienda cada petición en un hilo virtual; aquí se
+ * añade lo que ese modo necesita para ser seguro en esta aplicación: un límite de
+ * concurrencia JDBC delante de Hikari y la detección de anclajes con JFR.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcConcurrencyLimiter(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.virtual-threads.jdbc.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${app.virtual-threads.jdbc.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    ConcurrencyLimitedDataSource limited =
+                            new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeout);
+                    meterRegistry.ifAvailable(registry -> {
+                        Gauge.builder("jdbc.concurrency.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                                .register(registry);
+                        Gauge.builder("jdbc.concurrency.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                                .register(registry);
+                    });
+                    return limited;
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
@@ -1,27 +1,74 @@
 package com.nutricion.controller;
 
+import com.nutricion.dto.ClinicalHistorySearchDTO;
 import com.nutricion.dto.PatientDTO;
+import com.nutricion.dto.PatientImportReportDTO;
+import com.nutricion.dto.PatientPageDTO;
+import com.nutricion.dto.PatientSearchResultDTO;
 import com.nutricion.dto.ClinicalHistoryDTO;
 import com.nutricion.dto.BiometricsDTO;
 import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.AnthropometryTrendDTO;
+import com.nutricion.service.AnthropometryTrendService;
+import com.nutricion.service.ClinicalHistorySearchService;
+import com.nutricion.service.PatientFieldsService;
+import com.nutricion.service.PatientImportService;
+import com.nutricion.service.PatientResponseCache;
+import com.nutricion.service.PatientSearchService;
 import com.nutricion.service.PatientService;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/patients")
 @CrossOrigin(origins = "http://localhost:5173")
 public class PatientController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    // El navegador guarda la respuesta pero revalida siempre con If-None-Match; private porque son datos clínicos.
+    // Vary: Accept porque la misma URL puede responderse en JSON, CBOR o Smile (BinaryEncodingConfig)
+    private static final CacheControl PATIENT_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientFieldsService patientFieldsService;
+    private final PatientResponseCache patientResponseCache;
+    private final AnthropometryTrendService anthropometryTrendService;
+    private final PatientSearchService patientSearchService;
+    private final ClinicalHistorySearchService clinicalHistorySearchService;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService,
+                             PatientImportService patientImportService,
+                             PatientFieldsService patientFieldsService,
+                             PatientResponseCache patientResponseCache,
+                             AnthropometryTrendService anthropometryTrendService,
+                             PatientSearchService patientSearchService,
+                             ClinicalHistorySearchService clinicalHistorySearchService) {
         this.patientService = patientService;
+        this.patientImportService = patientImportService;
+        this.patientFieldsService = patientFieldsService;
+        this.patientResponseCache = patientResponseCache;
+        this.anthropometryTrendService = anthropometryTrendService;
+        this.patientSearchService = patientSearchService;
+        this.clinicalHistorySearchService = clinicalHistorySearchService;
     }
 
     @PostMapping
@@ -31,26 +78,127 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdPatient);
     }
 
+    // Con fields (p. ej. fields=firstName,lastName,email,phone,createdAt) cada paciente lleva solo esos
+    // campos y la consulta solo lee sus columnas; ver PatientFieldsService
     @GetMapping
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
-    public ResponseEntity<List<PatientDTO>> getAllPatients() {
-        List<PatientDTO> patients = patientService.getAllPatients();
+    public ResponseEntity<Object> getAllPatients(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size,
+                                                 @RequestParam(required = false) String sort,
+                                                 @RequestParam(required = false) String direction,
+                                                 @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(patientFieldsService.getAllPatients(cursor, size, sort, direction, fields));
+        }
+        PatientPageDTO patients = patientService.getAllPatients(cursor, size, sort, direction);
         return ResponseEntity.ok(patients);
     }
 
+    // Búsqueda por subcadena de nombre, apellido o email; se resuelve en memoria, sin consultar la BD
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<List<PatientSearchResultDTO>> searchPatients(@RequestParam String q,
+                                                                       @RequestParam(required = false) Integer limit) {
+        List<PatientSearchResultDTO> results = patientSearchService.search(q, limit);
+        return ResponseEntity.ok(results);
+    }
+
+    // Texto completo sobre alergias, medicación, antecedentes, intolerancias y notas del historial.
+    // Ejemplos de q: penicilina OR amoxicilina, "sin gluten", allergies:lactosa -notes:leve
+    @GetMapping("/history/search")
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<ClinicalHistorySearchDTO> searchClinicalHistories(@RequestParam String q,
+                                                                            @RequestParam(required = false) Integer limit) {
+        ClinicalHistorySearchDTO results = clinicalHistorySearchService.search(q, limit);
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPatients() {
+        StreamingResponseBody body = patientService::exportPatients;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients.ndjson\"")
+                .body(body);
+    }
+
+    // Alta masiva: CSV con cabecera o NDJSON (un PatientDTO por línea). Las filas inválidas no detienen la importación
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<PatientImportReportDTO> importPatients(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 InputStream body) throws IOException {
+        PatientImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? PatientImportService.Format.CSV
+                : PatientImportService.Format.NDJSON;
+        PatientImportReportDTO report = patientImportService.importPatients(body, format);
+        return ResponseEntity.ok(report);
+    }
+
+    // ETag = versión del paciente y formato negociado. Con el paciente en la caché de segundo nivel
+    // la versión sale sin SQL: si coincide con If-None-Match se responde 304 y, si no, la respuesta
+    // completa sale ya codificada de PatientResponseCache cuando esa versión se sirvió antes.
+    // En frío, una sola consulta trae el paciente con su versión
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
-    public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<Object> getPatientById(@PathVariable Long id,
+                                                 @RequestParam(required = false) String fields,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = patientResponseCache.negotiate(accept);
+        if (fields != null) {
+            // La proyección no incluye la versión: se lee antes que los datos para que el ETag nunca
+            // sea más nuevo que el contenido
+            String etag = patientResponseCache.etag(patientService.getPatientVersion(id), format);
+            if (ifNoneMatch != null && matchesAny(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            Map<String, Object> patient = patientFieldsService.getPatient(id, fields);
+            return ResponseEntity.ok().eTag(etag)
+                    .cacheControl(PATIENT_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).body(patient);
+        }
+
+        // Fuera de la caché de segundo nivel, leer solo la versión compensa si puede evitar la carga
+        // completa: hay If-None-Match o una respuesta guardada, quizá de esta misma versión
+        Long version = patientService.getCachedPatientVersion(id);
+        if (version == null && (ifNoneMatch != null || patientResponseCache.contains(id, format))) {
+            version = patientService.getPatientVersion(id);
+        }
+        if (version != null) {
+            String etag = patientResponseCache.etag(version, format);
+            if (ifNoneMatch != null && matchesAny(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            byte[] body = format != null ? patientResponseCache.get(id, version, format) : null;
+            if (body != null) {
+                return ResponseEntity.ok().eTag(etag).contentType(format)
+                        .cacheControl(PATIENT_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).body(body);
+            }
+        }
+
         PatientDTO patient = patientService.getPatientById(id);
-        return ResponseEntity.ok(patient);
+        String etag = patientResponseCache.etag(patient.getVersion(), format);
+        if (format == null) {
+            // Ningún formato aceptable: la negociación de Spring responde 406 como en el resto de la API
+            return ResponseEntity.ok().eTag(etag)
+                    .cacheControl(PATIENT_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).body(patient);
+        }
+        // Sin versión previa aún no se consultó la caché; si otra petición ya guardó esta versión se reutiliza
+        byte[] body = version == null ? patientResponseCache.get(id, patient.getVersion(), format) : null;
+        if (body == null) {
+            body = patientResponseCache.put(patient, format);
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(format)
+                .cacheControl(PATIENT_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).body(body);
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
     public ResponseEntity<PatientDTO> updatePatient(@PathVariable Long id,
-                                                    @RequestBody PatientDTO patientDTO) {
+                                                    @RequestBody PatientDTO patientDTO,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PatientDTO updatedPatient = patientService.updatePatient(id, patientDTO);
-        return ResponseEntity.ok(updatedPatient);
+        return ResponseEntity.ok().eTag(etag(updatedPatient.getVersion(), accept)).body(updatedPatient);
     }
 
     @DeleteMapping("/{id}")
@@ -63,24 +211,137 @@ public class PatientController {
     @PutMapping("/{id}/history")
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
     public ResponseEntity<PatientDTO> updateClinicalHistory(@PathVariable Long id,
-                                                            @RequestBody ClinicalHistoryDTO historyDTO) {
+                                                            @RequestBody ClinicalHistoryDTO historyDTO,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PatientDTO updatedPatient = patientService.updateClinicalHistory(id, historyDTO);
-        return ResponseEntity.ok(updatedPatient);
+        return ResponseEntity.ok().eTag(etag(updatedPatient.getVersion(), accept)).body(updatedPatient);
+    }
+
+    // JSON Merge Patch: solo los campos enviados. view=section devuelve solo el historial
+    @PatchMapping(value = "/{id}/history", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<Object> patchClinicalHistory(@PathVariable Long id,
+                                                       @RequestBody JsonNode patch,
+                                                       @RequestParam(required = false) String view,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean sectionOnly = isSectionView(view);
+        PatientDTO patient = patientService.patchClinicalHistory(id, patch, sectionOnly);
+        return ResponseEntity.ok().eTag(etag(patient.getVersion(), accept))
+                .body(sectionOnly ? patient.getClinicalHistory() : patient);
     }
 
     @PutMapping("/{id}/biometrics")
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
     public ResponseEntity<PatientDTO> updateBiometrics(@PathVariable Long id,
-                                                       @RequestBody BiometricsDTO biometricsDTO) {
+                                                       @RequestBody BiometricsDTO biometricsDTO,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PatientDTO updatedPatient = patientService.updateBiometrics(id, biometricsDTO);
-        return ResponseEntity.ok(updatedPatient);
+        return ResponseEntity.ok().eTag(etag(updatedPatient.getVersion(), accept)).body(updatedPatient);
+    }
+
+    @PatchMapping(value = "/{id}/biometrics", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<Object> patchBiometrics(@PathVariable Long id,
+                                                  @RequestBody JsonNode patch,
+                                                  @RequestParam(required = false) String view,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean sectionOnly = isSectionView(view);
+        PatientDTO patient = patientService.patchBiometrics(id, patch, sectionOnly);
+        return ResponseEntity.ok().eTag(etag(patient.getVersion(), accept))
+                .body(sectionOnly ? patient.getBiometrics() : patient);
+    }
+
+    @GetMapping("/{id}/biometrics/history")
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<List<BiometricsDTO>> getBiometricsHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<BiometricsDTO> history = patientService.getBiometricsHistory(id, limit, from, to);
+        return ResponseEntity.ok(history);
     }
 
     @PutMapping("/{id}/anthropometry")
     @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
     public ResponseEntity<PatientDTO> updateAnthropometry(@PathVariable Long id,
-                                                          @RequestBody AnthropometryDTO anthropometryDTO) {
+                                                          @RequestBody AnthropometryDTO anthropometryDTO,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PatientDTO updatedPatient = patientService.updateAnthropometry(id, anthropometryDTO);
-        return ResponseEntity.ok(updatedPatient);
+        return ResponseEntity.ok().eTag(etag(updatedPatient.getVersion(), accept)).body(updatedPatient);
+    }
+
+    @PatchMapping(value = "/{id}/anthropometry", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<Object> patchAnthropometry(@PathVariable Long id,
+                                                     @RequestBody JsonNode patch,
+                                                     @RequestParam(required = false) String view,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean sectionOnly = isSectionView(view);
+        PatientDTO patient = patientService.patchAnthropometry(id, patch, sectionOnly);
+        return ResponseEntity.ok().eTag(etag(patient.getVersion(), accept))
+                .body(sectionOnly ? patient.getAnthropometry() : patient);
+    }
+
+    // Tendencia de una métrica: intervalos week/month (media, mínimo, máximo) o lttb con "points" puntos
+    @GetMapping("/{id}/anthropometry/trend")
+    @PreAuthorize("hasAnyRole('NUTRITIONIST', 'ADMIN')")
+    public ResponseEntity<AnthropometryTrendDTO> getAnthropometryTrend(
+            @PathVariable Long id,
+            @RequestParam String metric,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) Integer points,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        AnthropometryTrendDTO trend = anthropometryTrendService.getTrend(id, metric, mode, points, from, to);
+        return ResponseEntity.ok(trend);
+    }
+
+    // view=patient (por defecto) devuelve el PatientDTO completo; view=section, solo la sección modificada
+    private static boolean isSectionView(String view) {
+        if (view == null || view.equals("patient")) {
+            return false;
+        }
+        if (view.equals("section")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Valor de view no soportado: " + view);
+    }
+
+    private static ResponseEntity<Object> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                .cacheControl(PATIENT_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    // El ETag de la respuesta de una escritura es el de GET en el mismo formato, para reutilizarlo en If-None-Match
+    private String etag(long version, String accept) {
+        return patientResponseCache.etag(version, patientResponseCache.negotiate(accept));
+    }
+
+    // If-None-Match admite una lista de ETags o "*"; para GET la comparación es débil (RFC 9110, 13.1.2)
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Otra petición cambió el paciente entre la lectura y la escritura (ver PatientService#touch).
+    // Las excepciones de EntityManager no pasan por la traducción de Spring, por eso las dos
+    @ExceptionHandler({ConcurrencyFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<String> handleConcurrentWrite(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("El paciente fue modificado por otra petición; vuelve a cargarlo e inténtalo de nuevo");
     }
 }
@@ -0,0 +1,56 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnthropometryTrendDTO {
+    private String metric;
+    // week, month o lttb
+    private String mode;
+    // Mediciones con valor para la métrica en el rango, antes de agregar
+    private long measurements;
+    private List<TrendPointDTO> points;
+
+    // Explicit getters
+    public String getMetric() { return metric; }
+    public String getMode() { return mode; }
+    public long getMeasurements() { return measurements; }
+    public List<TrendPointDTO> getPoints() { return points; }
+
+    // Explicit setters
+    public void setMetric(String metric) { this.metric = metric; }
+    public void setMode(String mode) { this.mode = mode; }
+    public void setMeasurements(long measurements) { this.measurements = measurements; }
+    public void setPoints(List<TrendPointDTO> points) { this.points = points; }
+
+    // Explicit builder method
+    public static AnthropometryTrendDTOBuilder builder() {
+        return new AnthropometryTrendDTOBuilder();
+    }
+
+    public static class AnthropometryTrendDTOBuilder {
+        private String metric;
+        private String mode;
+        private long measurements;
+        private List<TrendPointDTO> points;
+
+        public AnthropometryTrendDTOBuilder metric(String metric) { this.metric = metric; return this; }
+        public AnthropometryTrendDTOBuilder mode(String mode) { this.mode = mode; return this; }
+        public AnthropometryTrendDTOBuilder measurements(long measurements) { this.measurements = measurements; return this; }
+        public AnthropometryTrendDTOBuilder points(List<TrendPointDTO> points) { this.points = points; return this; }
+
+        public AnthropometryTrendDTO build() {
+            AnthropometryTrendDTO trend = new AnthropometryTrendDTO();
+            trend.metric = this.metric;
+            trend.mode = this.mode;
+            trend.measurements = this.measurements;
+            trend.points = this.points;
+            return trend;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClinicalHistoryHitDTO {
+    private Long patientId;
+    private double score;
+    // Campo del historial -> fragmentos con las coincidencias entre <mark></mark> (texto escapado como HTML)
+    private Map<String, String> highlights;
+
+    // Explicit getters
+    public Long getPatientId() { return patientId; }
+    public double getScore() { return score; }
+    public Map<String, String> getHighlights() { return highlights; }
+
+    // Explicit setters
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public void setScore(double score) { this.score = score; }
+    public void setHighlights(Map<String, String> highlights) { this.highlights = highlights; }
+
+    // Explicit builder method
+    public static ClinicalHistoryHitDTOBuilder builder() {
+        return new ClinicalHistoryHitDTOBuilder();
+    }
+
+    public static class ClinicalHistoryHitDTOBuilder {
+        private Long patientId;
+        private double score;
+        private Map<String, String> highlights;
+
+        public ClinicalHistoryHitDTOBuilder patientId(Long patientId) { this.patientId = patientId; return this; }
+        public ClinicalHistoryHitDTOBuilder score(double score) { this.score = score; return this; }
+        public ClinicalHistoryHitDTOBuilder highlights(Map<String, String> highlights) { this.highlights = highlights; return this; }
+
+        public ClinicalHistoryHitDTO build() {
+            ClinicalHistoryHitDTO hit = new ClinicalHistoryHitDTO();
+            hit.patientId = this.patientId;
+            hit.score = this.score;
+            hit.highlights = this.highlights;
+            return hit;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClinicalHistorySearchDTO {
+    // Pacientes que cumplen la consulta; hits trae solo los primeros por relevancia
+    private long total;
+    private List<ClinicalHistoryHitDTO> hits;
+
+    // Explicit getters
+    public long getTotal() { return total; }
+    public List<ClinicalHistoryHitDTO> getHits() { return hits; }
+
+    // Explicit setters
+    public void setTotal(long total) { this.total = total; }
+    public void setHits(List<ClinicalHistoryHitDTO> hits) { this.hits = hits; }
+
+    // Explicit builder method
+    public static ClinicalHistorySearchDTOBuilder builder() {
+        return new ClinicalHistorySearchDTOBuilder();
+    }
+
+    public static class ClinicalHistorySearchDTOBuilder {
+        private long total;
+        private List<ClinicalHistoryHitDTO> hits;
+
+        public ClinicalHistorySearchDTOBuilder total(long total) { this.total = total; return this; }
+        public ClinicalHistorySearchDTOBuilder hits(List<ClinicalHistoryHitDTO> hits) { this.hits = hits; return this; }
+
+        public ClinicalHistorySearchDTO build() {
+            ClinicalHistorySearchDTO result = new ClinicalHistorySearchDTO();
+            result.total = this.total;
+            result.hits = this.hits;
+            return result;
+        }
+    }
+}
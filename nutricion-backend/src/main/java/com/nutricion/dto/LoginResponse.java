@@ -8,6 +8,7 @@ import lombok.*;
 @Builder
 public class LoginResponse {
     private String token;
+    private String refreshToken;
     private String email;
     private String firstName;
     private String lastName;
@@ -15,6 +16,7 @@ public class LoginResponse {
 
     // Explicit getters
     public String getToken() { return token; }
+    public String getRefreshToken() { return refreshToken; }
     public String getEmail() { return email; }
     public String getFirstName() { return firstName; }
     public String getLastName() { return lastName; }
@@ -22,6 +24,7 @@ public class LoginResponse {
 
     // Explicit setters
     public void setToken(String token) { this.token = token; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
     public void setEmail(String email) { this.email = email; }
     public void setFirstName(String firstName) { this.firstName = firstName; }
     public void setLastName(String lastName) { this.lastName = lastName; }
@@ -34,6 +37,7 @@ public class LoginResponse {
 
     public static class LoginResponseBuilder {
         private String token;
+        private String refreshToken;
         private String email;
         private String firstName;
         private String lastName;
@@ -44,6 +48,11 @@ public class LoginResponse {
             return this;
         }
 
+        public LoginResponseBuilder refreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+            return this;
+        }
+
         public LoginResponseBuilder email(String email) {
             this.email = email;
             return this;
@@ -67,6 +76,7 @@ public class LoginResponse {
         public LoginResponse build() {
             LoginResponse resp = new LoginResponse();
             resp.token = this.token;
+            resp.refreshToken = this.refreshToken;
             resp.email = this.email;
             resp.firstName = this.firstName;
             resp.lastName = this.lastName;
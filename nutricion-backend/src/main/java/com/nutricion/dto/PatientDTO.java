@@ -18,6 +18,7 @@ public class PatientDTO {
     private String address;
     private String occupation;
     private LocalDate createdAt;
+    private Long version;
     private ClinicalHistoryDTO clinicalHistory;
     private BiometricsDTO biometrics;
     private AnthropometryDTO anthropometry;
@@ -33,6 +34,7 @@ public class PatientDTO {
     public String getAddress() { return address; }
     public String getOccupation() { return occupation; }
     public LocalDate getCreatedAt() { return createdAt; }
+    public Long getVersion() { return version; }
     public ClinicalHistoryDTO getClinicalHistory() { return clinicalHistory; }
     public BiometricsDTO getBiometrics() { return biometrics; }
     public AnthropometryDTO getAnthropometry() { return anthropometry; }
@@ -48,6 +50,7 @@ public class PatientDTO {
     public void setAddress(String address) { this.address = address; }
     public void setOccupation(String occupation) { this.occupation = occupation; }
     public void setCreatedAt(LocalDate createdAt) { this.createdAt = createdAt; }
+    public void setVersion(Long version) { this.version = version; }
     public void setClinicalHistory(ClinicalHistoryDTO clinicalHistory) { this.clinicalHistory = clinicalHistory; }
     public void setBiometrics(BiometricsDTO biometrics) { this.biometrics = biometrics; }
     public void setAnthropometry(AnthropometryDTO anthropometry) { this.anthropometry = anthropometry; }
@@ -68,6 +71,7 @@ public class PatientDTO {
         private String address;
         private String occupation;
         private LocalDate createdAt;
+        private Long version;
         private ClinicalHistoryDTO clinicalHistory;
         private BiometricsDTO biometrics;
         private AnthropometryDTO anthropometry;
@@ -82,6 +86,7 @@ public class PatientDTO {
         public PatientDTOBuilder address(String address) { this.address = address; return this; }
         public PatientDTOBuilder occupation(String occupation) { this.occupation = occupation; return this; }
         public PatientDTOBuilder createdAt(LocalDate createdAt) { this.createdAt = createdAt; return this; }
+        public PatientDTOBuilder version(Long version) { this.version = version; return this; }
         public PatientDTOBuilder clinicalHistory(ClinicalHistoryDTO clinicalHistory) { this.clinicalHistory = clinicalHistory; return this; }
         public PatientDTOBuilder biometrics(BiometricsDTO biometrics) { this.biometrics = biometrics; return this; }
         public PatientDTOBuilder anthropometry(AnthropometryDTO anthropometry) { this.anthropometry = anthropometry; return this; }
@@ -98,6 +103,7 @@ public class PatientDTO {
             dto.address = this.address;
             dto.occupation = this.occupation;
             dto.createdAt = this.createdAt;
+            dto.version = this.version;
             dto.clinicalHistory = this.clinicalHistory;
             dto.biometrics = this.biometrics;
             dto.anthropometry = this.anthropometry;
@@ -0,0 +1,63 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientFieldsPageDTO {
+    // Cada paciente solo con los campos pedidos, con los nombres y la anidación de PatientDTO
+    private List<Map<String, Object>> content;
+    private int size;
+    private String sort;
+    private String direction;
+    // Cursor opaco para pedir la siguiente página; null cuando no hay más resultados
+    private String next;
+
+    // Explicit getters
+    public List<Map<String, Object>> getContent() { return content; }
+    public int getSize() { return size; }
+    public String getSort() { return sort; }
+    public String getDirection() { return direction; }
+    public String getNext() { return next; }
+
+    // Explicit setters
+    public void setContent(List<Map<String, Object>> content) { this.content = content; }
+    public void setSize(int size) { this.size = size; }
+    public void setSort(String sort) { this.sort = sort; }
+    public void setDirection(String direction) { this.direction = direction; }
+    public void setNext(String next) { this.next = next; }
+
+    // Explicit builder method
+    public static PatientFieldsPageDTOBuilder builder() {
+        return new PatientFieldsPageDTOBuilder();
+    }
+
+    public static class PatientFieldsPageDTOBuilder {
+        private List<Map<String, Object>> content;
+        private int size;
+        private String sort;
+        private String direction;
+        private String next;
+
+        public PatientFieldsPageDTOBuilder content(List<Map<String, Object>> content) { this.content = content; return this; }
+        public PatientFieldsPageDTOBuilder size(int size) { this.size = size; return this; }
+        public PatientFieldsPageDTOBuilder sort(String sort) { this.sort = sort; return this; }
+        public PatientFieldsPageDTOBuilder direction(String direction) { this.direction = direction; return this; }
+        public PatientFieldsPageDTOBuilder next(String next) { this.next = next; return this; }
+
+        public PatientFieldsPageDTO build() {
+            PatientFieldsPageDTO page = new PatientFieldsPageDTO();
+            page.content = this.content;
+            page.size = this.size;
+            page.sort = this.sort;
+            page.direction = this.direction;
+            page.next = this.next;
+            return page;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientImportErrorDTO {
+    // Línea del archivo (1 = primera línea, incluida la cabecera CSV)
+    private long row;
+    private String email;
+    private String message;
+
+    // Explicit getters
+    public long getRow() { return row; }
+    public String getEmail() { return email; }
+    public String getMessage() { return message; }
+
+    // Explicit setters
+    public void setRow(long row) { this.row = row; }
+    public void setEmail(String email) { this.email = email; }
+    public void setMessage(String message) { this.message = message; }
+
+    // Explicit builder method
+    public static PatientImportErrorDTOBuilder builder() {
+        return new PatientImportErrorDTOBuilder();
+    }
+
+    public static class PatientImportErrorDTOBuilder {
+        private long row;
+        private String email;
+        private String message;
+
+        public PatientImportErrorDTOBuilder row(long row) { this.row = row; return this; }
+        public PatientImportErrorDTOBuilder email(String email) { this.email = email; return this; }
+        public PatientImportErrorDTOBuilder message(String message) { this.message = message; return this; }
+
+        public PatientImportErrorDTO build() {
+            PatientImportErrorDTO error = new PatientImportErrorDTO();
+            error.row = this.row;
+            error.email = this.email;
+            error.message = this.message;
+            return error;
+        }
+    }
+}
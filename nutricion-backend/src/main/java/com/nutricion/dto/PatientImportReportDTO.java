@@ -0,0 +1,61 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientImportReportDTO {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private long durationMs;
+    // Una entrada por fila rechazada, ordenadas por línea
+    private List<PatientImportErrorDTO> errors;
+
+    // Explicit getters
+    public int getTotalRows() { return totalRows; }
+    public int getImported() { return imported; }
+    public int getFailed() { return failed; }
+    public long getDurationMs() { return durationMs; }
+    public List<PatientImportErrorDTO> getErrors() { return errors; }
+
+    // Explicit setters
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+    public void setImported(int imported) { this.imported = imported; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    public void setErrors(List<PatientImportErrorDTO> errors) { this.errors = errors; }
+
+    // Explicit builder method
+    public static PatientImportReportDTOBuilder builder() {
+        return new PatientImportReportDTOBuilder();
+    }
+
+    public static class PatientImportReportDTOBuilder {
+        private int totalRows;
+        private int imported;
+        private int failed;
+        private long durationMs;
+        private List<PatientImportErrorDTO> errors;
+
+        public PatientImportReportDTOBuilder totalRows(int totalRows) { this.totalRows = totalRows; return this; }
+        public PatientImportReportDTOBuilder imported(int imported) { this.imported = imported; return this; }
+        public PatientImportReportDTOBuilder failed(int failed) { this.failed = failed; return this; }
+        public PatientImportReportDTOBuilder durationMs(long durationMs) { this.durationMs = durationMs; return this; }
+        public PatientImportReportDTOBuilder errors(List<PatientImportErrorDTO> errors) { this.errors = errors; return this; }
+
+        public PatientImportReportDTO build() {
+            PatientImportReportDTO report = new PatientImportReportDTO();
+            report.totalRows = this.totalRows;
+            report.imported = this.imported;
+            report.failed = this.failed;
+            report.durationMs = this.durationMs;
+            report.errors = this.errors;
+            return report;
+        }
+    }
+}
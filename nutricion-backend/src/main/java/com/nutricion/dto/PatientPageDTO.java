@@ -0,0 +1,61 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientPageDTO {
+    private List<PatientDTO> content;
+    private int size;
+    private String sort;
+    private String direction;
+    // Cursor opaco para pedir la siguiente página; null cuando no hay más resultados
+    private String next;
+
+    // Explicit getters
+    public List<PatientDTO> getContent() { return content; }
+    public int getSize() { return size; }
+    public String getSort() { return sort; }
+    public String getDirection() { return direction; }
+    public String getNext() { return next; }
+
+    // Explicit setters
+    public void setContent(List<PatientDTO> content) { this.content = content; }
+    public void setSize(int size) { this.size = size; }
+    public void setSort(String sort) { this.sort = sort; }
+    public void setDirection(String direction) { this.direction = direction; }
+    public void setNext(String next) { this.next = next; }
+
+    // Explicit builder method
+    public static PatientPageDTOBuilder builder() {
+        return new PatientPageDTOBuilder();
+    }
+
+    public static class PatientPageDTOBuilder {
+        private List<PatientDTO> content;
+        private int size;
+        private String sort;
+        private String direction;
+        private String next;
+
+        public PatientPageDTOBuilder content(List<PatientDTO> content) { this.content = content; return this; }
+        public PatientPageDTOBuilder size(int size) { this.size = size; return this; }
+        public PatientPageDTOBuilder sort(String sort) { this.sort = sort; return this; }
+        public PatientPageDTOBuilder direction(String direction) { this.direction = direction; return this; }
+        public PatientPageDTOBuilder next(String next) { this.next = next; return this; }
+
+        public PatientPageDTO build() {
+            PatientPageDTO page = new PatientPageDTO();
+            page.content = this.content;
+            page.size = this.size;
+            page.sort = this.sort;
+            page.direction = this.direction;
+            page.next = this.next;
+            return page;
+        }
+    }
+}
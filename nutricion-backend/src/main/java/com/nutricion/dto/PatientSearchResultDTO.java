@@ -0,0 +1,59 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientSearchResultDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    // Mayor es mejor: coincidencia exacta > prefijo > inicio de palabra > subcadena
+    private double score;
+
+    // Explicit getters
+    public Long getId() { return id; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public String getEmail() { return email; }
+    public double getScore() { return score; }
+
+    // Explicit setters
+    public void setId(Long id) { this.id = id; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    public void setEmail(String email) { this.email = email; }
+    public void setScore(double score) { this.score = score; }
+
+    // Explicit builder method
+    public static PatientSearchResultDTOBuilder builder() {
+        return new PatientSearchResultDTOBuilder();
+    }
+
+    public static class PatientSearchResultDTOBuilder {
+        private Long id;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private double score;
+
+        public PatientSearchResultDTOBuilder id(Long id) { this.id = id; return this; }
+        public PatientSearchResultDTOBuilder firstName(String firstName) { this.firstName = firstName; return this; }
+        public PatientSearchResultDTOBuilder lastName(String lastName) { this.lastName = lastName; return this; }
+        public PatientSearchResultDTOBuilder email(String email) { this.email = email; return this; }
+        public PatientSearchResultDTOBuilder score(double score) { this.score = score; return this; }
+
+        public PatientSearchResultDTO build() {
+            PatientSearchResultDTO result = new PatientSearchResultDTO();
+            result.id = this.id;
+            result.firstName = this.firstName;
+            result.lastName = this.lastName;
+            result.email = this.email;
+            result.score = this.score;
+            return result;
+        }
+    }
+}
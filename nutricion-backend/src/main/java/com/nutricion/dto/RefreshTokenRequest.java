@@ -0,0 +1,16 @@
+package com.nutricion.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequest {
+    private String refreshToken;
+
+    // Explicit getters
+    public String getRefreshToken() { return refreshToken; }
+
+    // Explicit setters
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
@@ -0,0 +1,61 @@
+package com.nutricion.dto;
+
+import java.time.LocalDate;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendPointDTO {
+    // Inicio del intervalo (lunes o día 1) o, en LTTB, fecha de la medición elegida
+    private LocalDate date;
+    // Media del intervalo o valor de la medición
+    private Double value;
+    private Double min;
+    private Double max;
+    private Integer count;
+
+    // Explicit getters
+    public LocalDate getDate() { return date; }
+    public Double getValue() { return value; }
+    public Double getMin() { return min; }
+    public Double getMax() { return max; }
+    public Integer getCount() { return count; }
+
+    // Explicit setters
+    public void setDate(LocalDate date) { this.date = date; }
+    public void setValue(Double value) { this.value = value; }
+    public void setMin(Double min) { this.min = min; }
+    public void setMax(Double max) { this.max = max; }
+    public void setCount(Integer count) { this.count = count; }
+
+    // Explicit builder method
+    public static TrendPointDTOBuilder builder() {
+        return new TrendPointDTOBuilder();
+    }
+
+    public static class TrendPointDTOBuilder {
+        private LocalDate date;
+        private Double value;
+        private Double min;
+        private Double max;
+        private Integer count;
+
+        public TrendPointDTOBuilder date(LocalDate date) { this.date = date; return this; }
+        public TrendPointDTOBuilder value(Double value) { this.value = value; return this; }
+        public TrendPointDTOBuilder min(Double min) { this.min = min; return this; }
+        public TrendPointDTOBuilder max(Double max) { this.max = max; return this; }
+        public TrendPointDTOBuilder count(Integer count) { this.count = count; return this; }
+
+        public TrendPointDTO build() {
+            TrendPointDTO point = new TrendPointDTO();
+            point.date = this.date;
+            point.value = this.value;
+            point.min = this.min;
+            point.max = this.max;
+            point.count = this.count;
+            return point;
+        }
+    }
+}
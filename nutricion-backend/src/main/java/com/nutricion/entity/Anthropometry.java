@@ -2,9 +2,15 @@ package com.nutricion.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Table(name = "anthropometry")
 @Data
 @NoArgsConstructor
@@ -12,9 +18,15 @@ import java.time.LocalDate;
 @Builder
 public class Anthropometry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anthropometry_seq")
+    @SequenceGenerator(name = "anthropometry_seq", sequenceName = "anthropometry_seq", allocationSize = 50)
     private Long id;
 
+    // Ver Biometrics#version
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Basic Measurements
     @Column
     private Double weight;
@@ -96,6 +108,7 @@ public class Anthropometry {
 
     // Explicit getters
     public Long getId() { return id; }
+    public Long getVersion() { return version; }
     public Double getWeight() { return weight; }
     public Double getHeight() { return height; }
     public Double getBmi() { return bmi; }
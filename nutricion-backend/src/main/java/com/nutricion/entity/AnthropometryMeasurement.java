@@ -0,0 +1,152 @@
+package com.nutricion.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Medición antropométrica histórica. Solo se insertan filas, nunca se modifican;
+ * la fila anthropometry del paciente conserva la medición más reciente.
+ *
+ * A diferencia de los paneles de laboratorio, aquí cada medida es una columna:
+ * las tendencias leen solo (measured_date, métrica) recorriendo el índice del paciente.
+ */
+@Entity
+@Table(name = "anthropometry_measurements", indexes = {
+        @Index(name = "idx_anthropometry_measurements_patient_date", columnList = "patient_id, measured_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnthropometryMeasurement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anthropometry_measurements_seq")
+    @SequenceGenerator(name = "anthropometry_measurements_seq", sequenceName = "anthropometry_measurements_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Patient patient;
+
+    @Column(name = "measured_date", nullable = false)
+    private LocalDate measuredDate;
+
+    @Column(nullable = false, updatable = false)
+    private Instant recordedAt;
+
+    @Column
+    private Double weight;
+
+    @Column
+    private Double height;
+
+    @Column
+    private Double bmi;
+
+    @Column
+    private Double waistCircumference;
+
+    @Column
+    private Double hipCircumference;
+
+    @Column
+    private Double waistHipRatio;
+
+    @Column
+    private Double armCircumference;
+
+    @Column
+    private Double thighCircumference;
+
+    @Column
+    private Double tricepsSkinFold;
+
+    @Column
+    private Double bicepsSkinFold;
+
+    @Column
+    private Double subscapularSkinFold;
+
+    @Column
+    private Double suprailiacSkinFold;
+
+    @Column
+    private Double muscleMass;
+
+    @Column
+    private Double boneMass;
+
+    @Column
+    private Double waterPercentage;
+
+    @Column
+    private Double fatPercentage;
+
+    @PrePersist
+    protected void onCreate() {
+        recordedAt = Instant.now();
+        if (measuredDate == null) {
+            measuredDate = LocalDate.now();
+        }
+        calculateMetrics();
+    }
+
+    // Mismas fórmulas que Anthropometry
+    public void calculateMetrics() {
+        if (weight != null && height != null && height > 0) {
+            bmi = weight / (height * height);
+        }
+        if (waistCircumference != null && hipCircumference != null && hipCircumference > 0) {
+            waistHipRatio = waistCircumference / hipCircumference;
+        }
+    }
+
+    // Explicit getters
+    public Long getId() { return id; }
+    public Patient getPatient() { return patient; }
+    public LocalDate getMeasuredDate() { return measuredDate; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public Double getWeight() { return weight; }
+    public Double getHeight() { return height; }
+    public Double getBmi() { return bmi; }
+    public Double getWaistCircumference() { return waistCircumference; }
+    public Double getHipCircumference() { return hipCircumference; }
+    public Double getWaistHipRatio() { return waistHipRatio; }
+    public Double getArmCircumference() { return armCircumference; }
+    public Double getThighCircumference() { return thighCircumference; }
+    public Double getTricepsSkinFold() { return tricepsSkinFold; }
+    public Double getBicepsSkinFold() { return bicepsSkinFold; }
+    public Double getSubscapularSkinFold() { return subscapularSkinFold; }
+    public Double getSuprailiacSkinFold() { return suprailiacSkinFold; }
+    public Double getMuscleMass() { return muscleMass; }
+    public Double getBoneMass() { return boneMass; }
+    public Double getWaterPercentage() { return waterPercentage; }
+    public Double getFatPercentage() { return fatPercentage; }
+
+    // Explicit setters
+    public void setId(Long id) { this.id = id; }
+    public void setPatient(Patient patient) { this.patient = patient; }
+    public void setMeasuredDate(LocalDate measuredDate) { this.measuredDate = measuredDate; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+    public void setWeight(Double weight) { this.weight = weight; }
+    public void setHeight(Double height) { this.height = height; }
+    public void setBmi(Double bmi) { this.bmi = bmi; }
+    public void setWaistCircumference(Double waistCircumference) { this.waistCircumference = waistCircumference; }
+    public void setHipCircumference(Double hipCircumference) { this.hipCircumference = hipCircumference; }
+    public void setWaistHipRatio(Double waistHipRatio) { this.waistHipRatio = waistHipRatio; }
+    public void setArmCircumference(Double armCircumference) { this.armCircumference = armCircumference; }
+    public void setThighCircumference(Double thighCircumference) { this.thighCircumference = thighCircumference; }
+    public void setTricepsSkinFold(Double tricepsSkinFold) { this.tricepsSkinFold = tricepsSkinFold; }
+    public void setBicepsSkinFold(Double bicepsSkinFold) { this.bicepsSkinFold = bicepsSkinFold; }
+    public void setSubscapularSkinFold(Double subscapularSkinFold) { this.subscapularSkinFold = subscapularSkinFold; }
+    public void setSuprailiacSkinFold(Double suprailiacSkinFold) { this.suprailiacSkinFold = suprailiacSkinFold; }
+    public void setMuscleMass(Double muscleMass) { this.muscleMass = muscleMass; }
+    public void setBoneMass(Double boneMass) { this.boneMass = boneMass; }
+    public void setWaterPercentage(Double waterPercentage) { this.waterPercentage = waterPercentage; }
+    public void setFatPercentage(Double fatPercentage) { this.fatPercentage = fatPercentage; }
+}
@@ -2,9 +2,16 @@ package com.nutricion.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// El UPDATE solo incluye las columnas modificadas: un PATCH de un analito no reescribe los 28
+@DynamicUpdate
 @Table(name = "biometrics")
 @Data
 @NoArgsConstructor
@@ -12,9 +19,16 @@ import java.time.LocalDate;
 @Builder
 public class Biometrics {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "biometrics_seq")
+    @SequenceGenerator(name = "biometrics_seq", sequenceName = "biometrics_seq", allocationSize = 50)
     private Long id;
 
+    // Con @DynamicUpdate, una entidad sin versión se invalida en la caché de segundo nivel en cada
+    // UPDATE; con versión, READ_WRITE reemplaza la entrada al confirmar
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Carbohydrate Metabolism
     @Column
     private Double glucose;
@@ -118,6 +132,7 @@ public class Biometrics {
 
     // Explicit getters
     public Long getId() { return id; }
+    public Long getVersion() { return version; }
     public Double getGlucose() { return glucose; }
     public Double getHemoglobinA1c() { return hemoglobinA1c; }
     public Double getTotalCholesterol() { return totalCholesterol; }
@@ -0,0 +1,124 @@
+package com.nutricion.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Panel de laboratorio histórico. Cada PUT inserta una fila; un PATCH corrige el
+ * último panel, el que refleja la fila biometrics del paciente.
+ *
+ * Los 28 analitos son opcionales y casi siempre vienen pocos, así que en lugar de
+ * 28 columnas se guarda una máscara de presencia (bit i = analito i de
+ * {@link #ANALYTES}) y los valores presentes empaquetados como doubles de 8 bytes
+ * (big-endian) en ese mismo orden. Un panel con 5 analitos ocupa 4 + 40 bytes.
+ * El orden de {@link #ANALYTES} forma parte del formato: solo se pueden añadir
+ * analitos al final.
+ */
+@Entity
+@Table(name = "biometrics_panels", indexes = {
+        // Últimos N paneles y rangos de fechas de un paciente sin ordenar en memoria
+        @Index(name = "idx_biometrics_panels_patient_date", columnList = "patient_id, measured_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BiometricsPanel {
+    public static final String[] ANALYTES = {
+            "glucose", "hemoglobinA1c",
+            "totalCholesterol", "ldlCholesterol", "hdlCholesterol", "triglycerides", "vldlCholesterol",
+            "ast", "alt", "ggt", "bilirubin",
+            "creatinine", "bun",
+            "totalProteins", "albumin", "prealbumin",
+            "hemoglobin", "hematocrit", "whiteBloodCells", "platelets",
+            "vitaminB12", "folacin", "iron", "ferritin", "zinc", "calcium", "magnesium", "phosphorus"
+    };
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "biometrics_panels_seq")
+    @SequenceGenerator(name = "biometrics_panels_seq", sequenceName = "biometrics_panels_seq", allocationSize = 50)
+    private Long id;
+
+    // Borrar un paciente borra su historial en la propia BD, sin cargar los paneles
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Patient patient;
+
+    @Column(name = "measured_date", nullable = false)
+    private LocalDate measuredDate;
+
+    @Column(nullable = false, updatable = false)
+    private Instant recordedAt;
+
+    @Column(nullable = false)
+    private Integer presenceMask;
+
+    @Column(name = "panel_values", nullable = false, length = 8 * 28)
+    private byte[] values;
+
+    @PrePersist
+    protected void onCreate() {
+        recordedAt = Instant.now();
+        if (measuredDate == null) {
+            measuredDate = LocalDate.now();
+        }
+    }
+
+    /**
+     * Empaqueta los valores en el orden de {@link #ANALYTES}; los null no ocupan espacio.
+     */
+    public void setAnalytes(Double[] analytes) {
+        int mask = 0;
+        int present = 0;
+        for (int i = 0; i < ANALYTES.length; i++) {
+            if (analytes[i] != null) {
+                mask |= 1 << i;
+                present++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(present * Double.BYTES);
+        for (int i = 0; i < ANALYTES.length; i++) {
+            if (analytes[i] != null) {
+                buffer.putDouble(analytes[i]);
+            }
+        }
+        this.presenceMask = mask;
+        this.values = buffer.array();
+    }
+
+    /**
+     * Devuelve un array de {@code ANALYTES.length} posiciones con null en los analitos ausentes.
+     */
+    public Double[] getAnalytes() {
+        Double[] analytes = new Double[ANALYTES.length];
+        ByteBuffer buffer = ByteBuffer.wrap(values);
+        for (int i = 0; i < ANALYTES.length; i++) {
+            if ((presenceMask & (1 << i)) != 0) {
+                analytes[i] = buffer.getDouble();
+            }
+        }
+        return analytes;
+    }
+
+    // Explicit getters
+    public Long getId() { return id; }
+    public Patient getPatient() { return patient; }
+    public LocalDate getMeasuredDate() { return measuredDate; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public Integer getPresenceMask() { return presenceMask; }
+    public byte[] getValues() { return values; }
+
+    // Explicit setters
+    public void setId(Long id) { this.id = id; }
+    public void setPatient(Patient patient) { this.patient = patient; }
+    public void setMeasuredDate(LocalDate measuredDate) { this.measuredDate = measuredDate; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+    public void setPresenceMask(Integer presenceMask) { this.presenceMask = presenceMask; }
+    public void setValues(byte[] values) { this.values = values; }
+}
@@ -2,8 +2,14 @@ package com.nutricion.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Table(name = "clinical_histories")
 @Data
 @NoArgsConstructor
@@ -11,9 +17,15 @@ import lombok.*;
 @Builder
 public class ClinicalHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clinical_histories_seq")
+    @SequenceGenerator(name = "clinical_histories_seq", sequenceName = "clinical_histories_seq", allocationSize = 50)
     private Long id;
 
+    // Ver Biometrics#version
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Antecedents Section
     @Column(columnDefinition = "TEXT")
     private String medicalHistory;
@@ -66,6 +78,7 @@ public class ClinicalHistory {
 
     // Explicit getters
     public Long getId() { return id; }
+    public Long getVersion() { return version; }
     public String getMedicalHistory() { return medicalHistory; }
     public String getSurgicalHistory() { return surgicalHistory; }
     public String getFamilyHistory() { return familyHistory; }
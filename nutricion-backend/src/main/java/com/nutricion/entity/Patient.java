@@ -2,17 +2,39 @@ package com.nutricion.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "patients")
+// Caché de segundo nivel (ver SecondLevelCacheConfig); las secciones se cachean por separado
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Grafo usado por todas las lecturas que devuelven PatientDTO: carga las tres secciones en la misma consulta
+@NamedEntityGraph(name = Patient.GRAPH_SECTIONS, attributeNodes = {
+        @NamedAttributeNode("clinicalHistory"),
+        @NamedAttributeNode("biometrics"),
+        @NamedAttributeNode("anthropometry")
+})
+@Table(name = "patients", uniqueConstraints = {
+        // Nombre fijo: la importación lo reconoce en la excepción para informar de emails ya registrados
+        @UniqueConstraint(name = Patient.EMAIL_CONSTRAINT, columnNames = "email")
+}, indexes = {
+        // Soporta la paginación por keyset ordenada por apellido
+        @Index(name = "idx_patients_last_name_id", columnList = "lastName, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Patient {
+    public static final String GRAPH_SECTIONS = "Patient.sections";
+    public static final String EMAIL_CONSTRAINT = "uk_patients_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled: un nextval reserva 50 ids, así Hibernate puede agrupar los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,7 +43,7 @@ public class Patient {
     @Column(nullable = false)
     private String lastName;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -39,21 +61,27 @@ public class Patient {
     @Column
     private String occupation;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "clinical_history_id", referencedColumnName = "id")
     private ClinicalHistory clinicalHistory;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "biometrics_id", referencedColumnName = "id")
     private Biometrics biometrics;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "anthropometry_id", referencedColumnName = "id")
     private Anthropometry anthropometry;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDate createdAt;
 
+    // Versión del perfil completo: la sube cualquier cambio del paciente o de sus secciones
+    // (ver PatientService#touch) y es el ETag de GET /api/patients/{id}
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDate.now();
@@ -73,6 +101,7 @@ public class Patient {
     public Biometrics getBiometrics() { return biometrics; }
     public Anthropometry getAnthropometry() { return anthropometry; }
     public LocalDate getCreatedAt() { return createdAt; }
+    public Long getVersion() { return version; }
 
     // Explicit setters
     public void setId(Long id) { this.id = id; }
@@ -88,5 +117,6 @@ public class Patient {
     public void setBiometrics(Biometrics biometrics) { this.biometrics = biometrics; }
     public void setAnthropometry(Anthropometry anthropometry) { this.anthropometry = anthropometry; }
     public void setCreatedAt(LocalDate createdAt) { this.createdAt = createdAt; }
+    public void setVersion(Long version) { this.version = version; }
 }
 
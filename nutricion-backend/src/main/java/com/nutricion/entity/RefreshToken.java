@@ -0,0 +1,49 @@
+package com.nutricion.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // SHA-256 (hex) del token opaco; el valor en claro nunca se guarda
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Un token usado queda revocado; si vuelve a presentarse se revocan todos los del usuario
+    @Column(nullable = false)
+    private Boolean revoked = false;
+
+    // Explicit getters
+    public Long getId() { return id; }
+    public String getTokenHash() { return tokenHash; }
+    public User getUser() { return user; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public Boolean getRevoked() { return revoked; }
+
+    // Explicit setters
+    public void setId(Long id) { this.id = id; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    public void setUser(User user) { this.user = user; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public void setRevoked(Boolean revoked) { this.revoked = revoked; }
+}
@@ -0,0 +1,44 @@
+package com.nutricion.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_jti", columnList = "jti", unique = true),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // Claim jti del access token revocado
+    @Column(nullable = false, length = 64)
+    private String jti;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    // Expiración original del token: a partir de aquí la fila ya no hace falta
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Explicit getters
+    public Long getId() { return id; }
+    public String getJti() { return jti; }
+    public Instant getRevokedAt() { return revokedAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    // Explicit setters
+    public void setId(Long id) { this.id = id; }
+    public void setJti(String jti) { this.jti = jti; }
+    public void setRevokedAt(Instant revokedAt) { this.revokedAt = revokedAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,14 @@
+package com.nutricion.repository;
+
+import com.nutricion.entity.AnthropometryMeasurement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AnthropometryMeasurementRepository extends JpaRepository<AnthropometryMeasurement, Long> {
+    // Recorre el índice (patient_id, measured_date); el id desempata mediciones del mismo día
+    Optional<AnthropometryMeasurement> findFirstByPatientIdAndMeasuredDateOrderByIdDesc(Long patientId, LocalDate measuredDate);
+}
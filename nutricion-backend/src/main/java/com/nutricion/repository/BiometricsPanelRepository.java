@@ -0,0 +1,21 @@
+package com.nutricion.repository;
+
+import com.nutricion.entity.BiometricsPanel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BiometricsPanelRepository extends JpaRepository<BiometricsPanel, Long> {
+    // Ambas consultas recorren el índice (patient_id, measured_date); el id desempata paneles del mismo día
+    List<BiometricsPanel> findByPatientIdOrderByMeasuredDateDescIdDesc(Long patientId, Pageable limit);
+
+    List<BiometricsPanel> findByPatientIdAndMeasuredDateBetweenOrderByMeasuredDateAscIdAsc(
+            Long patientId, LocalDate from, LocalDate to, Pageable limit);
+
+    Optional<BiometricsPanel> findFirstByPatientIdAndMeasuredDateOrderByIdDesc(Long patientId, LocalDate measuredDate);
+}
@@ -1,15 +1,81 @@
 package com.nutricion.repository;
 
 import com.nutricion.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmail(String email);
-    List<Patient> findByFirstNameContainingIgnoreCase(String firstName);
-    List<Patient> findByLastNameContainingIgnoreCase(String lastName);
+
+    // Las secciones son LAZY; toda lectura que se convierta a PatientDTO debe usar el grafo para evitar N+1
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    Optional<Patient> findWithSectionsById(Long id);
+
+    // Para responder 304 a GET condicionales sin cargar el paciente
+    @Query("SELECT p.version FROM Patient p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Paginación por keyset: el Pageable solo aporta el límite y el orden, nunca un OFFSET
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    List<Patient> findAllBy(Pageable pageable);
+
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    List<Patient> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    List<Patient> findByIdLessThan(Long id, Pageable pageable);
+
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    @Query("SELECT p FROM Patient p WHERE p.lastName > :lastName " +
+           "OR (p.lastName = :lastName AND p.id > :id)")
+    List<Patient> findByLastNameAfter(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(Patient.GRAPH_SECTIONS)
+    @Query("SELECT p FROM Patient p WHERE p.lastName < :lastName " +
+           "OR (p.lastName = :lastName AND p.id < :id)")
+    List<Patient> findByLastNameBefore(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+
+    // Carga del índice de búsqueda: solo las columnas indexadas, sin entidades gestionadas
+    @Query("SELECT p.id, p.firstName, p.lastName, p.email FROM Patient p")
+    List<Object[]> findSearchFields();
+
+    // Carga del índice de historiales clínicos: solo los campos de texto indexados.
+    // Cursor JDBC; debe consumirse dentro de una transacción
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p.id, h.allergies, h.currentMedications, h.medicalHistory, h.foodIntolerances, h.notes " +
+           "FROM Patient p JOIN p.clinicalHistory h")
+    Stream<Object[]> streamClinicalHistoryText();
+
+    // Importación masiva: emails del lote que ya existen, en una sola consulta
+    @Query("SELECT p.email FROM Patient p WHERE p.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Exportación: cursor JDBC con fetch size acotado; debe consumirse dentro de una transacción.
+    // No pasa por la caché de segundo nivel para no desalojar los pacientes de uso frecuente
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")
+    })
+    @Query("SELECT p FROM Patient p " +
+           "LEFT JOIN FETCH p.clinicalHistory " +
+           "LEFT JOIN FETCH p.biometrics " +
+           "LEFT JOIN FETCH p.anthropometry " +
+           "ORDER BY p.id")
+    Stream<Patient> streamAllForExport();
 }
@@ -0,0 +1,192 @@
+package com.nutricion.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de texto completo en memoria (Lucene) sobre los campos libres del historial clínico.
+ *
+ * Un documento por paciente, identificado por su id. Las consultas usan la sintaxis
+ * clásica de Lucene: varias palabras exigen todas (AND), con OR, NOT, -palabra,
+ * "frases entre comillas", paréntesis y campo:palabra para restringir a un campo.
+ * Los fragmentos resaltados se generan desde el texto guardado en el propio índice,
+ * con los offsets indexados, sin releer la BD.
+ *
+ * Las escrituras son visibles para la siguiente búsqueda: cada búsqueda reabre el
+ * lector si hubo cambios desde la anterior.
+ */
+public class ClinicalHistoryIndex implements Closeable {
+
+    public static final String[] FIELDS = {
+            "allergies", "currentMedications", "medicalHistory", "foodIntolerances", "notes"
+    };
+
+    private static final String ID = "patientId";
+    private static final int PASSAGES_PER_FIELD = 2;
+    private static final FieldType TEXT_WITH_OFFSETS = new FieldType();
+
+    static {
+        TEXT_WITH_OFFSETS.setTokenized(true);
+        TEXT_WITH_OFFSETS.setStored(true);
+        TEXT_WITH_OFFSETS.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TEXT_WITH_OFFSETS.freeze();
+    }
+
+    public record Hit(long patientId, float score, Map<String, String> highlights) {
+    }
+
+    public record Result(long total, List<Hit> hits) {
+    }
+
+    private final Analyzer analyzer = new SpanishClinicalAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public ClinicalHistoryIndex() {
+        try {
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+            this.writer = new IndexWriter(new ByteBuffersDirectory(), config);
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Añade o reemplaza el historial del paciente. {@code values} va en el orden de
+     * {@link #FIELDS}; si todos están vacíos el paciente sale del índice.
+     */
+    public void put(long patientId, String... values) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(patientId), Field.Store.YES));
+        boolean empty = true;
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (values[i] != null && !values[i].isBlank()) {
+                document.add(new Field(FIELDS[i], values[i], TEXT_WITH_OFFSETS));
+                empty = false;
+            }
+        }
+        try {
+            if (empty) {
+                writer.deleteDocuments(idTerm(patientId));
+            } else {
+                writer.updateDocument(idTerm(patientId), document);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void remove(long patientId) {
+        try {
+            writer.deleteDocuments(idTerm(patientId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * @throws IllegalArgumentException si la consulta no tiene una sintaxis válida
+     */
+    public Result search(String query, int limit) {
+        Query parsed = parse(query);
+        try {
+            searcherManager.maybeRefreshBlocking();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(parsed, limit);
+                long total = searcher.count(parsed);
+
+                int[] passages = new int[FIELDS.length];
+                Arrays.fill(passages, PASSAGES_PER_FIELD);
+                UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                        .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "… ", true))
+                        .withMaxNoHighlightPassages(0)
+                        .build();
+                Map<String, String[]> fragments = highlighter.highlightFields(FIELDS, parsed, top, passages);
+
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (int i = 0; i < top.scoreDocs.length; i++) {
+                    Document document = storedFields.document(top.scoreDocs[i].doc, Set.of(ID));
+                    Map<String, String> highlights = new LinkedHashMap<>();
+                    for (String field : FIELDS) {
+                        String fragment = fragments.get(field)[i];
+                        if (fragment != null) {
+                            highlights.put(field, fragment);
+                        }
+                    }
+                    hits.add(new Hit(Long.parseLong(document.get(ID)), top.scoreDocs[i].score, highlights));
+                }
+                return new Result(total, hits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IndexSearcher.TooManyClauses e) {
+            throw new IllegalArgumentException("La consulta es demasiado amplia: " + query);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Las búsquedas en curso terminan con su lector; el directorio en memoria lo libera el GC.
+     */
+    @Override
+    public void close() {
+        try {
+            searcherManager.close();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // QueryParser no es thread-safe: uno por consulta
+    private Query parse(String query) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(FIELDS, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Consulta no válida: " + query);
+        }
+    }
+
+    private static Term idTerm(long patientId) {
+        return new Term(ID, Long.toString(patientId));
+    }
+}
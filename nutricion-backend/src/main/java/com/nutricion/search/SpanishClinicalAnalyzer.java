@@ -0,0 +1,53 @@
+package com.nutricion.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+import java.util.Set;
+
+/**
+ * Análisis de texto clínico en español: minúsculas, palabras vacías, sin tildes y
+ * stemming ligero (plurales y género), de modo que "alergias" encuentra "Alergia"
+ * y "lactosa" encuentra "LACTOSA". El stemmer ligero es deliberadamente
+ * conservador: no reduce "diabético" y "diabetes" a la misma raíz.
+ */
+public final class SpanishClinicalAnalyzer extends Analyzer {
+
+    // "no" y "sin" son palabras vacías en SpanishAnalyzer, pero en un historial cambian el sentido
+    private static final Set<String> KEEP = Set.of("no", "sin");
+    private static final CharArraySet STOP_WORDS;
+
+    static {
+        CharArraySet stopWords = new CharArraySet(SpanishAnalyzer.getDefaultStopSet().size(), false);
+        for (Object word : SpanishAnalyzer.getDefaultStopSet()) {
+            String value = new String((char[]) word);
+            if (!KEEP.contains(value)) {
+                stopWords.add(value);
+            }
+        }
+        STOP_WORDS = CharArraySet.unmodifiableSet(stopWords);
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer source = new StandardTokenizer();
+        TokenStream result = new LowerCaseFilter(source);
+        result = new StopFilter(result, STOP_WORDS);
+        result = new ASCIIFoldingFilter(result);
+        result = new SpanishLightStemFilter(result);
+        return new TokenStreamComponents(source, result);
+    }
+
+    @Override
+    protected TokenStream normalize(String fieldName, TokenStream in) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+    }
+}
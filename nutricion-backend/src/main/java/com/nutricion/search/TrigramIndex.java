@@ -0,0 +1,364 @@
+package com.nutricion.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas en memoria para búsquedas por subcadena.
+ *
+ * Cada documento tiene un id externo y varios campos de texto. Los campos se
+ * normalizan (minúsculas, sin tildes) y se indexan todos sus trigramas, más los
+ * trigramas de inicio de palabra ("  a", " an") para que las consultas de una o
+ * dos letras funcionen como prefijo de palabra. Una consulta intersecta las listas
+ * de sus trigramas empezando por la más corta y verifica los candidatos contra el
+ * texto, así que el coste depende de lo selectiva que sea la consulta y no del
+ * número total de documentos.
+ *
+ * Las listas de postings son arrays ordenados de ids internos densos. Una
+ * actualización retira el documento y lo vuelve a añadir con un id interno nuevo,
+ * por lo que las listas solo crecen por el final; los huecos se eliminan al
+ * reconstruir el índice. Lecturas concurrentes, escrituras exclusivas.
+ */
+public class TrigramIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final char PAD = ' ';
+    private static final int MAX_MATCHES = 500;
+    // Cabeza del heap: menor puntuación y, a igualdad, mayor id
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Hit::id, Comparator.reverseOrder());
+
+    public record Hit(long id, String[] fields, double score) {
+    }
+
+    private record Doc(long id, String[] fields, String[] normalized) {
+    }
+
+    private final double[] fieldWeights;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /**
+     * @param fieldWeights peso de cada campo en la puntuación, en el orden en que se pasan a {@link #put}
+     */
+    public TrigramIndex(double... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Añade o reemplaza el documento {@code id}.
+     */
+    public void put(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+        long[] trigrams = documentTrigrams(normalized);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int doc = docs.size();
+            docs.add(new Doc(id, fields.clone(), normalized));
+            docById.put(id, doc);
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, k -> new IntList()).append(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los {@code limit} documentos mejor puntuados que contienen todas las
+     * palabras de la consulta (cada una en cualquiera de los campos).
+     *
+     * Primero se buscan documentos donde todas las palabras son inicio de palabra y,
+     * solo si no llegan a {@code limit}, cualquier subcadena. Cada fase puntúa como
+     * mucho {@link #MAX_MATCHES} coincidencias: con consultas muy poco selectivas
+     * (una letra sobre 100.000 pacientes) el orden es exacto dentro de ese tope, y
+     * una letra más en la consulta basta para que deje de aplicarse.
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] tokens = normalize(query).trim().split("\\s+");
+        if (tokens.length == 0 || tokens[0].isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean hasLongToken = Arrays.stream(tokens).anyMatch(token -> token.length() >= 3);
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            collect(tokens, true, limit, top, Set.of());
+            if (top.size() < limit && hasLongToken) {
+                Set<Long> prefixHits = new HashSet<>();
+                top.forEach(hit -> prefixHits.add(hit.id()));
+                collect(tokens, false, limit, top, prefixHits);
+            }
+            List<Hit> result = new ArrayList<>(top);
+            result.sort(WORST_FIRST.reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Intersecta las listas de la consulta, empezando por la más corta, y guarda en top los mejores
+    private void collect(String[] tokens, boolean wordPrefix, int limit, PriorityQueue<Hit> top,
+                              Set<Long> skip) {
+        List<IntList> lists = new ArrayList<>();
+        for (String token : tokens) {
+            for (long trigram : queryTrigrams(token, wordPrefix)) {
+                IntList list = postings.get(trigram);
+                if (list == null || list.size == 0) {
+                    return;
+                }
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        IntList smallest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        int matches = 0;
+        int i = 0;
+        candidates:
+        while (i < smallest.size && matches < MAX_MATCHES) {
+            int doc = smallest.values[i];
+            for (int l = 1; l < lists.size(); l++) {
+                IntList other = lists.get(l);
+                int pos = other.advance(cursors[l], doc);
+                if (pos == other.size) {
+                    break candidates;
+                }
+                cursors[l] = pos;
+                if (other.values[pos] != doc) {
+                    // Salta directamente al siguiente id que puede estar en ambas listas
+                    i = smallest.advance(i + 1, other.values[pos]);
+                    continue candidates;
+                }
+            }
+            i++;
+            Doc candidate = docs.get(doc);
+            if (candidate == null || skip.contains(candidate.id())) {
+                continue;
+            }
+            double score = score(candidate, tokens, wordPrefix);
+            if (score <= 0) {
+                continue;
+            }
+            matches++;
+            if (top.size() == limit) {
+                Hit worst = top.peek();
+                if (score < worst.score() || (score == worst.score() && candidate.id() > worst.id())) {
+                    continue;
+                }
+                top.poll();
+            }
+            top.add(new Hit(candidate.id(), candidate.fields(), score));
+        }
+    }
+
+    private void removeLocked(long id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (long trigram : documentTrigrams(docs.get(doc).normalized())) {
+            IntList list = postings.get(trigram);
+            if (list != null) {
+                list.remove(doc);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        docs.set(doc, null);
+    }
+
+    // Cada palabra de la consulta debe aparecer en algún campo; las de 1-2 letras, como inicio de palabra
+    private double score(Doc doc, String[] tokens, boolean wordPrefix) {
+        double total = 0;
+        for (String token : tokens) {
+            double best = 0;
+            for (int f = 0; f < doc.normalized().length; f++) {
+                String text = doc.normalized()[f];
+                int idx = findMatch(text, token, wordPrefix || token.length() < 3);
+                if (idx < 0) {
+                    continue;
+                }
+                double quality;
+                if (idx == 0 && text.length() == token.length()) {
+                    quality = 4;
+                } else if (idx == 0) {
+                    quality = 3;
+                } else if (!Character.isLetterOrDigit(text.charAt(idx - 1))) {
+                    quality = 2;
+                } else {
+                    quality = 1;
+                }
+                // Desempate: el término cubre más parte de un campo corto
+                double s = fieldWeights[f] * (quality + (double) token.length() / text.length());
+                best = Math.max(best, s);
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int findMatch(String text, String token, boolean wordStart) {
+        int idx = text.indexOf(token);
+        if (!wordStart) {
+            return idx;
+        }
+        while (idx > 0 && Character.isLetterOrDigit(text.charAt(idx - 1))) {
+            idx = text.indexOf(token, idx + 1);
+        }
+        return idx;
+    }
+
+    private static long[] documentTrigrams(String[] normalized) {
+        LongSet set = new LongSet();
+        for (String text : normalized) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                set.add(key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)));
+            }
+            for (int i = 0; i < text.length(); i++) {
+                boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                        && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+                if (wordStart) {
+                    set.add(key(PAD, PAD, text.charAt(i)));
+                    if (i + 1 < text.length()) {
+                        set.add(key(PAD, text.charAt(i), text.charAt(i + 1)));
+                    }
+                }
+            }
+        }
+        return set.toArray();
+    }
+
+    private static long[] queryTrigrams(String token, boolean wordPrefix) {
+        if (token.length() == 1) {
+            return new long[] {key(PAD, PAD, token.charAt(0))};
+        }
+        if (token.length() == 2) {
+            return new long[] {key(PAD, token.charAt(0), token.charAt(1))};
+        }
+        LongSet set = new LongSet();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            set.add(key(token.charAt(i), token.charAt(i + 1), token.charAt(i + 2)));
+        }
+        if (wordPrefix) {
+            set.add(key(PAD, token.charAt(0), token.charAt(1)));
+        }
+        return set.toArray();
+    }
+
+    // Solo tiene que ser único. Multiplicar por una constante impar es biyectivo y reparte
+    // los bits: Long.hashCode empaquetado sin mezclar colisiona mucho con texto latino
+    private static long key(char a, char b, char c) {
+        return (((long) a << 32) | ((long) b << 16) | c) * 0x9E3779B97F4A7C15L;
+    }
+
+    // Lista de ints ordenada y creciente; append en O(1) amortizado
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void append(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Primera posición >= from con valor >= target; búsqueda exponencial porque los cursores avanzan poco
+        int advance(int from, int target) {
+            if (from >= size || values[from] >= target) {
+                return from;
+            }
+            int lo = from;
+            int step = 1;
+            while (lo + step < size && values[lo + step] < target) {
+                lo += step;
+                step <<= 1;
+            }
+            int pos = Arrays.binarySearch(values, lo + 1, Math.min(lo + step, size), target);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+
+        void remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+                size--;
+            }
+        }
+    }
+
+    // Acumula trigramas y los devuelve ordenados y sin repetir
+    private static final class LongSet {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            Arrays.sort(values, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || values[unique - 1] != values[i]) {
+                    values[unique++] = values[i];
+                }
+            }
+            return Arrays.copyOf(values, unique);
+        }
+    }
+}
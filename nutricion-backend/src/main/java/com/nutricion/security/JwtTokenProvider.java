@@ -1,15 +1,24 @@
 package com.nutricion.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nutricion.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
@@ -17,12 +26,39 @@ public class JwtTokenProvider {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private long jwtExpirationMs;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
     // HMAC-SHA512 requiere al menos 64 bytes (512 bits) de clave
     private static final int MIN_SECRET_BYTES = 64;
 
+    // Clave y parser se construyen una sola vez; JwtParser es inmutable y seguro entre hilos
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens ya verificados: un acierto evita repetir el HMAC. Cada entrada caduca con el propio token
+    private Cache<String, Claims> verifiedTokens;
+
+    // Tiempo de parseClaims por resultado: cached (sin HMAC), valid o invalid
+    private final Timer cachedParse;
+    private final Timer validParse;
+    private final Timer invalidParse;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.cachedParse = parseTimer(meterRegistry, "cached");
+        this.validParse = parseTimer(meterRegistry, "valid");
+        this.invalidParse = parseTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer parseTimer(MeterRegistry registry, String result) {
+        return Timer.builder("auth.jwt.parse")
+                .tag("result", result)
+                .register(registry);
+    }
+
     @PostConstruct
     public void validateSecretEntropy() {
         if (jwtSecret == null || jwtSecret.getBytes().length < MIN_SECRET_BYTES) {
@@ -31,42 +67,74 @@ public class JwtTokenProvider {
                 " bytes. Genera uno con: openssl rand -hex 64"
             );
         }
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long remainingMs = expiration == null ? 0 : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(User user) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
                 .claim("firstName", user.getFirstName())
                 .claim("lastName", user.getLastName())
                 .claim("role", user.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(key, SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifica firma y expiración y devuelve los claims en una sola pasada.
+     * Devuelve null si el token no es válido.
+     */
+    public Claims parseClaims(String token) {
+        long start = System.nanoTime();
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            cachedParse.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(token, claims);
+            validParse.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (Exception e) {
+            invalidParse.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
     public String getUserEmailFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = parseClaims(token);
+        return claims == null ? null : claims.getSubject();
     }
 
     public boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return parseClaims(token) != null;
     }
 }
-
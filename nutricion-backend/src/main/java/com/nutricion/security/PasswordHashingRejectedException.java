@@ -0,0 +1,11 @@
+package com.nutricion.security;
+
+/**
+ * El pool de hash de contraseñas está saturado; el cliente debe reintentar más tarde.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Servicio de autenticación saturado, intente nuevamente en unos segundos");
+    }
+}
@@ -0,0 +1,55 @@
+package com.nutricion.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Elige la fuerza de BCrypt según el hardware del nodo.
+ *
+ * Mide el coste del hash con la fuerza mínima y extrapola: cada punto de fuerza
+ * duplica el tiempo, así que basta con unos pocos hashes baratos en el arranque.
+ * El resultado es la mayor fuerza cuyo tiempo estimado no supera el objetivo,
+ * acotada entre el mínimo y el máximo configurados.
+ */
+public final class PasswordStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordStrengthCalibrator.class);
+    private static final int SAMPLES = 3;
+
+    private PasswordStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        // Con el mínimo por encima del máximo el resultado ignoraría el máximo sin avisar
+        if (minStrength > maxStrength) {
+            throw new IllegalStateException(
+                "app.security.password-hashing.min-strength (" + minStrength + ") no puede ser mayor que " +
+                "max-strength (" + maxStrength + ")"
+            );
+        }
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String hash = probe.encode("calibracion");
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.matches("calibracion", hash);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        double estimatedNanos = bestNanos;
+        while (strength < maxStrength && estimatedNanos * 2 <= target.toNanos()) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+
+        log.info("BCrypt calibrado: fuerza {} (~{} ms por hash, objetivo {} ms, medido {} ms con fuerza {})",
+                strength, Math.round(estimatedNanos / 1_000_000), target.toMillis(),
+                bestNanos / 1_000_000, minStrength);
+        return strength;
+    }
+}
@@ -0,0 +1,49 @@
+package com.nutricion.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nutricion.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Estado mínimo de cada usuario (activo y rol) para autenticar peticiones JWT
+ * sin consultar la tabla users en cada llamada.
+ *
+ * Las entradas caducan tras {@code app.security.user-status-ttl}; AuthService
+ * las invalida explícitamente al modificar o eliminar un usuario, de modo que
+ * una desactivación surte efecto de inmediato en este nodo y, como máximo,
+ * tras el TTL en los demás.
+ */
+@Component
+public class UserStatusCache {
+
+    public record UserStatus(boolean active, String role) {
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<UserStatus>> cache;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${app.security.user-status-ttl:60s}") Duration ttl,
+                           @Value("${app.security.user-status-cache-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    // Optional vacío si el usuario no existe; también se cachea para no repetir la consulta
+    public Optional<UserStatus> get(String email) {
+        return cache.get(email, key -> userRepository.findByEmail(key)
+                .map(user -> new UserStatus(Boolean.TRUE.equals(user.getActive()), user.getRole())));
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+}
@@ -0,0 +1,29 @@
+package com.nutricion.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplaza efectos fuera de la BD (índices y cachés en memoria) hasta que la
+ * transacción actual confirma, para que un rollback no los deje por delante de la BD
+ * ni una lectura concurrente vuelva a cachear el estado anterior al commit.
+ * Fuera de una transacción la acción se ejecuta en el acto.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.AnthropometryTrendDTO;
+import com.nutricion.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Tendencias de una métrica antropométrica a partir del historial de mediciones.
+ *
+ * La BD devuelve solo (fecha, valor) ordenado por el índice (patient_id, measured_date)
+ * y {@link TrendAggregator} lo reduce mientras se lee, así que ni la memoria ni la
+ * respuesta crecen con la longitud del historial.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AnthropometryTrendService {
+
+    // Nombres de atributo de AnthropometryMeasurement; la lista blanca evita inyectar JPQL
+    private static final Set<String> METRICS = Set.of(
+            "weight", "height", "bmi", "waistCircumference", "hipCircumference", "waistHipRatio",
+            "armCircumference", "thighCircumference", "tricepsSkinFold", "bicepsSkinFold",
+            "subscapularSkinFold", "suprailiacSkinFold", "muscleMass", "boneMass",
+            "waterPercentage", "fatPercentage"
+    );
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final EntityManager entityManager;
+    private final PatientRepository patientRepository;
+
+    @Value("${app.trends.default-points:100}")
+    private int defaultPoints;
+
+    @Value("${app.trends.max-points:1000}")
+    private int maxPoints;
+
+    public AnthropometryTrendService(EntityManager entityManager, PatientRepository patientRepository) {
+        this.entityManager = entityManager;
+        this.patientRepository = patientRepository;
+    }
+
+    public AnthropometryTrendDTO getTrend(Long patientId, String metric, String mode, Integer points,
+                                          LocalDate from, LocalDate to) {
+        if (metric == null || !METRICS.contains(metric)) {
+            throw new IllegalArgumentException("Métrica no soportada: " + metric);
+        }
+        String trendMode = mode == null ? "month" : mode.toLowerCase(Locale.ROOT);
+        LocalDate start = from == null ? MIN_DATE : from;
+        LocalDate end = to == null ? MAX_DATE : to;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("La fecha inicial es posterior a la final");
+        }
+
+        String where = " FROM AnthropometryMeasurement m WHERE m.patient.id = :patientId"
+                + " AND m.measuredDate BETWEEN :from AND :to AND m." + metric + " IS NOT NULL";
+
+        TrendAggregator aggregator = switch (trendMode) {
+            case "week" -> TrendAggregator.weekly();
+            case "month" -> TrendAggregator.monthly();
+            case "lttb" -> {
+                // LTTB necesita saber cuántos puntos hay para repartirlos en intervalos
+                long total = entityManager.createQuery("SELECT COUNT(m)" + where, Long.class)
+                        .setParameter("patientId", patientId)
+                        .setParameter("from", start)
+                        .setParameter("to", end)
+                        .getSingleResult();
+                int threshold = points == null ? defaultPoints : Math.min(Math.max(points, 3), maxPoints);
+                yield TrendAggregator.lttb(total, threshold);
+            }
+            default -> throw new IllegalArgumentException("Modo de tendencia no soportado: " + mode);
+        };
+
+        long measurements = 0;
+        try (Stream<Object[]> rows = entityManager
+                .createQuery("SELECT m.measuredDate, m." + metric + where + " ORDER BY m.measuredDate, m.id",
+                        Object[].class)
+                .setParameter("patientId", patientId)
+                .setParameter("from", start)
+                .setParameter("to", end)
+                .setHint("org.hibernate.fetchSize", 500)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                aggregator.accept((LocalDate) row[0], (Double) row[1]);
+                measurements++;
+            }
+        }
+
+        // Solo se comprueba el paciente cuando no hay datos: el caso normal es una única consulta
+        if (measurements == 0 && !patientRepository.existsById(patientId)) {
+            throw new RuntimeException("Paciente no encontrado");
+        }
+
+        return AnthropometryTrendDTO.builder()
+                .metric(metric)
+                .mode(trendMode)
+                .measurements(measurements)
+                .points(aggregator.finish())
+                .build();
+    }
+}
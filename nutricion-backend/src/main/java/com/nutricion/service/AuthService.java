@@ -2,11 +2,15 @@ package com.nutricion.service;
 
 import com.nutricion.dto.LoginRequest;
 import com.nutricion.dto.LoginResponse;
+import com.nutricion.dto.RefreshTokenRequest;
 import com.nutricion.entity.User;
 import com.nutricion.repository.UserRepository;
 import com.nutricion.security.JwtTokenProvider;
+import com.nutricion.security.UserStatusCache;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,13 +26,21 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserStatusCache userStatusCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, 
-                       AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider) {
+                       AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider,
+                       UserStatusCache userStatusCache, RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userStatusCache = userStatusCache;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     // Credenciales de admin leídas desde variables de entorno (nunca hardcodeadas)
@@ -49,6 +61,7 @@ public class AuthService {
                     .active(true)
                     .build();
             userRepository.save(adminUser);
+            invalidateStatusAfterCommit(defaultAdminEmail);
         }
     }
 
@@ -64,9 +77,33 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
+        return buildLoginResponse(user, refreshTokenService.issue(user));
+    }
+
+    // Renueva la sesión con un refresh token de un solo uso; no pasa por BCrypt.
+    // La revocación por reutilización se confirma aunque la petición termine en error
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return buildLoginResponse(rotation.user(), rotation.refreshToken());
+    }
+
+    // Revoca el access token actual (por jti, hasta su expiración) y, si se envía, el refresh token
+    public void logout(String accessToken, RefreshTokenRequest request) {
+        Claims claims = jwtTokenProvider.parseClaims(accessToken);
+        if (claims != null && claims.getExpiration() != null) {
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+        }
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+    }
+
+    private LoginResponse buildLoginResponse(User user, String refreshToken) {
         String token = jwtTokenProvider.generateToken(user);
         return LoginResponse.builder()
                 .token(token)
+                .refreshToken(refreshToken)
                 .email(user.getEmail())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
@@ -81,7 +118,10 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setRole("NUTRITIONIST");
         user.setActive(true);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // UserStatusCache también guarda "no existe": un token previo con este email lo habría cacheado
+        invalidateStatusAfterCommit(saved.getEmail());
+        return saved;
     }
 
     public List<User> getAllNutritionists() {
@@ -94,13 +134,21 @@ public class AuthService {
         user.setFirstName(userDetails.getFirstName());
         user.setLastName(userDetails.getLastName());
         user.setActive(userDetails.getActive());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        invalidateStatusAfterCommit(saved.getEmail());
+        return saved;
     }
 
     public void deleteNutritionist(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("Usuario no encontrado");
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        refreshTokenService.deleteAllForUser(user);
+        userRepository.delete(user);
+        invalidateStatusAfterCommit(user.getEmail());
+    }
+
+    // Antes del commit otra petición podría recargar el estado anterior y dejarlo en caché hasta el TTL
+    private void invalidateStatusAfterCommit(String email) {
+        AfterCommit.run(() -> userStatusCache.invalidate(email));
     }
 }
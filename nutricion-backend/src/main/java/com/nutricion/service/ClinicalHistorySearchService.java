@@ -0,0 +1,125 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.ClinicalHistoryHitDTO;
+import com.nutricion.dto.ClinicalHistorySearchDTO;
+import com.nutricion.entity.ClinicalHistory;
+import com.nutricion.repository.PatientRepository;
+import com.nutricion.search.ClinicalHistoryIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de texto completo en alergias, medicación, antecedentes, intolerancias y
+ * notas del historial clínico, sin leer historiales al consultar.
+ *
+ * Mismo ciclo de vida que {@link PatientSearchService}: el índice se construye al
+ * arrancar, recibe los cambios confirmados de PatientService y de la importación,
+ * y se reconstruye periódicamente porque cada nodo tiene el suyo.
+ */
+@Service
+public class ClinicalHistorySearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicalHistorySearchService.class);
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RebuildableIndex<ClinicalHistoryIndex> index = new RebuildableIndex<>(new ClinicalHistoryIndex());
+
+    @Value("${app.clinical-search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${app.clinical-search.max-limit:200}")
+    private int maxLimit;
+
+    public ClinicalHistorySearchService(PatientRepository patientRepository,
+                                        TransactionTemplate transactionTemplate) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void close() {
+        index.get().close();
+    }
+
+    @Scheduled(cron = "${app.clinical-search.rebuild-cron:0 45 * * * *}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        ClinicalHistoryIndex fresh = new ClinicalHistoryIndex();
+        // Si la carga falla se sigue sirviendo el índice anterior y se cierra el que quedó a medias
+        ClinicalHistoryIndex replaced = fresh;
+        try {
+            replaced = index.rebuild(() -> {
+                // El cursor de la consulta necesita una transacción abierta mientras se recorre
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = patientRepository.streamClinicalHistoryText()) {
+                        rows.forEach(row -> fresh.put((Long) row[0],
+                                (String) row[1], (String) row[2], (String) row[3], (String) row[4], (String) row[5]));
+                    }
+                });
+                return fresh;
+            });
+        } finally {
+            replaced.close();
+        }
+        log.info("Índice de historiales clínicos construido: {} historiales en {} ms",
+                fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public ClinicalHistorySearchDTO search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("El parámetro q es obligatorio");
+        }
+        int k = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        ClinicalHistoryIndex.Result result;
+        try {
+            result = index.get().search(query, k);
+        } catch (AlreadyClosedException e) {
+            // El índice se reemplazó por uno reconstruido durante la búsqueda
+            result = index.get().search(query, k);
+        }
+        return ClinicalHistorySearchDTO.builder()
+                .total(result.total())
+                .hits(result.hits().stream()
+                        .map(hit -> ClinicalHistoryHitDTO.builder()
+                                .patientId(hit.patientId())
+                                .score(hit.score())
+                                .highlights(hit.highlights())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public void indexAfterCommit(Long patientId, ClinicalHistory history) {
+        if (history == null) {
+            removeAfterCommit(patientId);
+            return;
+        }
+        String allergies = history.getAllergies();
+        String currentMedications = history.getCurrentMedications();
+        String medicalHistory = history.getMedicalHistory();
+        String foodIntolerances = history.getFoodIntolerances();
+        String notes = history.getNotes();
+        index.applyAfterCommit(target -> target.put(patientId,
+                allergies, currentMedications, medicalHistory, foodIntolerances, notes));
+    }
+
+    public void removeAfterCommit(Long patientId) {
+        index.applyAfterCommit(target -> target.remove(patientId));
+    }
+}
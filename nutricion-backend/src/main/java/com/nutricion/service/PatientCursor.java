@@ -0,0 +1,90 @@
+package com.nutricion.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Posición de la paginación por keyset de GET /api/patients: orden, dirección y, a
+ * partir de la segunda página, el último (id, apellido) devuelto.
+ *
+ * Cursor: base64url("orden,dirección,id[,apellido]"); el apellido va al final porque
+ * puede contener comas.
+ */
+record PatientCursor(String sortKey, boolean ascending, Long afterId, String afterLastName) {
+
+    static final String SORT_ID = "id";
+    static final String SORT_LAST_NAME = "lastName";
+
+    // El cursor fija el orden de la primera página para que "next" sea estable
+    static PatientCursor of(String cursor, String sort, String direction) {
+        PatientCursor position;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decode(cursor);
+            position = new PatientCursor(parts[0], parts[1].equals("asc"), Long.valueOf(parts[2]),
+                    parts.length > 3 ? parts[3] : null);
+        } else if (direction != null && !direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+            throw new IllegalArgumentException("Dirección de orden inválida: " + direction);
+        } else {
+            position = new PatientCursor(sort == null ? SORT_ID : sort,
+                    direction == null || direction.equalsIgnoreCase("asc"), null, null);
+        }
+
+        if (!SORT_ID.equals(position.sortKey()) && !SORT_LAST_NAME.equals(position.sortKey())) {
+            throw new IllegalArgumentException("Campo de orden no soportado: " + position.sortKey());
+        }
+        if (SORT_LAST_NAME.equals(position.sortKey()) && position.afterId() != null && position.afterLastName() == null) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return position;
+    }
+
+    /**
+     * Filas de una página y cursor de la siguiente (null en la última). Las consultas piden
+     * {@code pageSize + 1} filas: la extra indica si hay página siguiente sin hacer COUNT.
+     */
+    record Page<T>(List<T> rows, String next) {
+    }
+
+    static int pageSize(Integer size, int defaultPageSize, int maxPageSize) {
+        return size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+    }
+
+    // Descarta la fila extra y, si la había, genera el cursor a partir de la última fila de la página
+    <T> Page<T> page(List<T> rows, int pageSize, Function<T, Long> id, Function<T, String> lastName) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        T last = content.get(pageSize - 1);
+        return new Page<>(content, next(id.apply(last), lastName.apply(last)));
+    }
+
+    String direction() {
+        return ascending ? "asc" : "desc";
+    }
+
+    // Cursor de la página siguiente a partir del último paciente de esta
+    String next(Long lastId, String lastName) {
+        String raw = sortKey + "," + direction() + "," + lastId;
+        if (SORT_LAST_NAME.equals(sortKey)) {
+            raw += "," + lastName;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 4);
+            if (parts.length < 3 || !(parts[1].equals("asc") || parts[1].equals("desc"))) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            Long.parseLong(parts[2]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
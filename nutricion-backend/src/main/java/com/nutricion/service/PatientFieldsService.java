@@ -0,0 +1,193 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.PatientFieldsPageDTO;
+import com.nutricion.entity.BiometricsPanel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lecturas de pacientes con un subconjunto de campos (parámetro {@code fields}).
+ *
+ * Cada lectura es una única consulta JPQL que proyecta solo las columnas pedidas y
+ * solo hace JOIN con las secciones de las que se pidió algún campo: no se cargan
+ * entidades y lo que no se pidió no se lee ni se serializa. Los campos se piden por
+ * nombre ({@code firstName}), por sección completa ({@code biometrics}) o por campo
+ * de sección ({@code biometrics.glucose}), con los mismos nombres que PatientDTO.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PatientFieldsService {
+
+    // Listas blancas en el orden de los DTO; los nombres coinciden con los atributos de las entidades
+    private static final List<String> PATIENT_FIELDS = List.of(
+            "id", "firstName", "lastName", "email", "phone", "dateOfBirth", "gender", "address",
+            "occupation", "createdAt", "version");
+    private static final List<Section> SECTIONS = List.of(
+            new Section("clinicalHistory", "h", List.of(
+                    "id", "medicalHistory", "surgicalHistory", "familyHistory", "pastDiseases", "complaint",
+                    "dietaryHabits", "physicalActivity", "alcoholConsumption", "tobaccoUse",
+                    "currentMedications", "allergies", "foodIntolerances", "nutritionalGoal",
+                    "dietaryRestrictions", "notes")),
+            new Section("biometrics", "b", Stream.concat(
+                    Stream.concat(Stream.of("id"), Stream.of(BiometricsPanel.ANALYTES)),
+                    Stream.of("measuredDate")).toList()),
+            new Section("anthropometry", "a", List.of(
+                    "id", "weight", "height", "bmi", "waistCircumference", "hipCircumference", "waistHipRatio",
+                    "armCircumference", "thighCircumference", "tricepsSkinFold", "bicepsSkinFold",
+                    "subscapularSkinFold", "suprailiacSkinFold", "muscleMass", "boneMass",
+                    "waterPercentage", "fatPercentage", "measuredDate"))
+    );
+
+    private record Section(String name, String alias, List<String> fields) {
+    }
+
+    private final EntityManager entityManager;
+
+    @Value("${app.pagination.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    public PatientFieldsService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Map<String, Object> getPatient(Long id, String fields) {
+        Projection projection = Projection.parse(fields);
+        List<Object[]> rows = entityManager
+                .createQuery(projection.jpql("WHERE p.id = :id", ""), Object[].class)
+                .setParameter("id", id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Paciente no encontrado");
+        }
+        return projection.toMap(rows.get(0));
+    }
+
+    // Misma paginación por keyset (y mismos cursores) que PatientService#getAllPatients
+    public PatientFieldsPageDTO getAllPatients(String cursor, Integer size, String sort, String direction,
+                                               String fields) {
+        int pageSize = PatientCursor.pageSize(size, defaultPageSize, maxPageSize);
+        PatientCursor position = PatientCursor.of(cursor, sort, direction);
+        Projection projection = Projection.parse(fields);
+
+        String dir = position.ascending() ? "ASC" : "DESC";
+        String cmp = position.ascending() ? ">" : "<";
+        boolean byId = PatientCursor.SORT_ID.equals(position.sortKey());
+        String where = "";
+        if (position.afterId() != null) {
+            where = byId
+                    ? "WHERE p.id " + cmp + " :afterId"
+                    : "WHERE p.lastName " + cmp + " :afterLastName OR (p.lastName = :afterLastName AND p.id " + cmp + " :afterId)";
+        }
+        String orderBy = byId ? "ORDER BY p.id " + dir : "ORDER BY p.lastName " + dir + ", p.id " + dir;
+
+        // pageSize + 1: ver PatientCursor.Page
+        TypedQuery<Object[]> query = entityManager.createQuery(projection.jpql(where, orderBy), Object[].class)
+                .setMaxResults(pageSize + 1);
+        if (position.afterId() != null) {
+            query.setParameter("afterId", position.afterId());
+            if (!byId) {
+                query.setParameter("afterLastName", position.afterLastName());
+            }
+        }
+        PatientCursor.Page<Object[]> page = position.page(query.getResultList(), pageSize,
+                row -> (Long) row[0], row -> (String) row[1]);
+
+        return PatientFieldsPageDTO.builder()
+                .content(page.rows().stream().map(projection::toMap).collect(Collectors.toList()))
+                .size(pageSize)
+                .sort(position.sortKey())
+                .direction(position.direction())
+                .next(page.next())
+                .build();
+    }
+
+    /**
+     * Columnas a proyectar. Las dos primeras son siempre p.id y p.lastName (para el cursor)
+     * y cada sección pedida añade su id, que distingue "sin sección" de "campos a null".
+     */
+    private record Projection(List<String> patientFields, Map<Section, List<String>> sectionFields) {
+
+        static Projection parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                throw new IllegalArgumentException("El parámetro fields está vacío");
+            }
+            Set<String> requested = new LinkedHashSet<>();
+            for (String field : fields.split(",")) {
+                if (!field.isBlank()) {
+                    requested.add(field.trim());
+                }
+            }
+
+            // Cada campo reconocido se quita de requested; lo que quede al final no existe
+            List<String> patientFields = new ArrayList<>();
+            for (String field : PATIENT_FIELDS) {
+                if (requested.remove(field)) {
+                    patientFields.add(field);
+                }
+            }
+            Map<Section, List<String>> sectionFields = new LinkedHashMap<>();
+            for (Section section : SECTIONS) {
+                boolean whole = requested.remove(section.name());
+                List<String> selected = new ArrayList<>();
+                for (String field : section.fields()) {
+                    // Sin cortocircuito: con la sección completa pedida, "biometrics.glucose" también se consume
+                    boolean named = requested.remove(section.name() + "." + field);
+                    if (named || whole) {
+                        selected.add(field);
+                    }
+                }
+                if (!selected.isEmpty()) {
+                    sectionFields.put(section, selected);
+                }
+            }
+            if (!requested.isEmpty()) {
+                throw new IllegalArgumentException("Campos no soportados: " + String.join(",", requested));
+            }
+            return new Projection(patientFields, sectionFields);
+        }
+
+        String jpql(String where, String orderBy) {
+            List<String> columns = new ArrayList<>(List.of("p.id", "p.lastName"));
+            patientFields.forEach(field -> columns.add("p." + field));
+            StringBuilder joins = new StringBuilder();
+            sectionFields.forEach((section, fields) -> {
+                columns.add(section.alias() + ".id");
+                fields.forEach(field -> columns.add(section.alias() + "." + field));
+                joins.append(" LEFT JOIN p.").append(section.name()).append(' ').append(section.alias());
+            });
+            return "SELECT " + String.join(", ", columns) + " FROM Patient p" + joins + " " + where + " " + orderBy;
+        }
+
+        Map<String, Object> toMap(Object[] row) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            int column = 2;
+            for (String field : patientFields) {
+                result.put(field, row[column++]);
+            }
+            for (Map.Entry<Section, List<String>> entry : sectionFields.entrySet()) {
+                boolean present = row[column++] != null;
+                Map<String, Object> section = new LinkedHashMap<>();
+                for (String field : entry.getValue()) {
+                    section.put(field, row[column++]);
+                }
+                result.put(entry.getKey().name(), present ? section : null);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.dto.ClinicalHistoryDTO;
+import com.nutricion.dto.PatientDTO;
+import com.nutricion.dto.PatientImportErrorDTO;
+import com.nutricion.dto.PatientImportReportDTO;
+import com.nutricion.entity.ClinicalHistory;
+import com.nutricion.entity.Patient;
+import com.nutricion.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de pacientes desde CSV o NDJSON.
+ *
+ * El archivo se lee completo (acotado por {@code app.import.max-rows}), las filas
+ * se validan en paralelo y las válidas se insertan en transacciones de
+ * {@code app.import.chunk-size} filas con inserciones JDBC por lotes. Si un lote
+ * falla (por ejemplo, un email que otro usuario dio de alta mientras tanto), sus
+ * filas se reintentan una a una para aislar la culpable sin perder las demás.
+ * Este servicio no es @Transactional: cada lote abre y confirma su propia transacción.
+ *
+ * Con open-session-in-view la petición entera comparte un mismo EntityManager, que
+ * el commit no vacía: cada lote lo limpia al terminar para que los siguientes no
+ * revisen (dirty checking) ni retengan en memoria los pacientes ya guardados.
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    // Longitud de las columnas VARCHAR de patients y clinical_histories (por defecto de @Column)
+    private static final int MAX_LENGTH = 255;
+
+    public enum Format { CSV, NDJSON }
+
+    // Columnas CSV admitidas (nombres de PatientDTO, sin distinguir mayúsculas)
+    private static final Map<String, BiConsumer<PatientDTO, String>> CSV_COLUMNS = Map.of(
+            "firstname", PatientDTO::setFirstName,
+            "lastname", PatientDTO::setLastName,
+            "email", PatientDTO::setEmail,
+            "phone", PatientDTO::setPhone,
+            "dateofbirth", (dto, value) -> dto.setDateOfBirth(LocalDate.parse(value)),
+            "gender", PatientDTO::setGender,
+            "address", PatientDTO::setAddress,
+            "occupation", PatientDTO::setOccupation
+    );
+
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final PatientSearchService patientSearchService;
+    private final ClinicalHistorySearchService clinicalHistorySearchService;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-rows:50000}")
+    private int maxRows;
+
+    public PatientImportService(PatientRepository patientRepository,
+                                EntityManager entityManager,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                PatientSearchService patientSearchService,
+                                ClinicalHistorySearchService clinicalHistorySearchService) {
+        this.patientRepository = patientRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.patientSearchService = patientSearchService;
+        this.clinicalHistorySearchService = clinicalHistorySearchService;
+    }
+
+    // Fila del archivo: el DTO leído o, si no se pudo leer/validar, el motivo
+    private static final class ImportRow {
+        private final long line;
+        private final PatientDTO patient;
+        private volatile String error;
+
+        private ImportRow(long line, PatientDTO patient, String error) {
+            this.line = line;
+            this.patient = patient;
+            this.error = error;
+        }
+    }
+
+    public PatientImportReportDTO importPatients(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<ImportRow> rows = format == Format.CSV ? parseCsv(reader) : parseNdjson(reader);
+
+        // La validación no toca la BD ni estado compartido: se reparte entre todos los núcleos
+        rows.parallelStream()
+                .filter(row -> row.error == null)
+                .forEach(row -> row.error = validate(row.patient));
+
+        // Emails repetidos dentro del propio archivo: se acepta la primera aparición
+        Set<String> seen = new HashSet<>();
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                continue;
+            }
+            if (!seen.add(row.patient.getEmail())) {
+                row.error = "Email duplicado en el archivo";
+            } else {
+                valid.add(row);
+            }
+        }
+
+        int imported = 0;
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            imported += insertChunk(valid.subList(from, Math.min(from + chunkSize, valid.size())));
+        }
+
+        List<PatientImportErrorDTO> errors = rows.stream()
+                .filter(row -> row.error != null)
+                .sorted(Comparator.comparingLong(row -> row.line))
+                .map(row -> PatientImportErrorDTO.builder()
+                        .row(row.line)
+                        .email(row.patient == null ? null : row.patient.getEmail())
+                        .message(row.error)
+                        .build())
+                .collect(Collectors.toList());
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Importación de pacientes: {} filas, {} importadas, {} rechazadas en {} ms",
+                rows.size(), imported, errors.size(), durationMs);
+
+        return PatientImportReportDTO.builder()
+                .totalRows(rows.size())
+                .imported(imported)
+                .failed(errors.size())
+                .durationMs(durationMs)
+                .errors(errors)
+                .build();
+    }
+
+    private int insertChunk(List<ImportRow> chunk) {
+        try {
+            Integer inserted = transactionTemplate.execute(status -> {
+                // Miles de altas seguidas no deben desalojar de la caché de segundo nivel a los pacientes en uso
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                Set<String> existing = new HashSet<>(patientRepository.findExistingEmails(
+                        chunk.stream().map(row -> row.patient.getEmail()).collect(Collectors.toList())));
+                int count = 0;
+                for (ImportRow row : chunk) {
+                    if (existing.contains(row.patient.getEmail())) {
+                        row.error = "Email ya registrado";
+                    } else {
+                        Patient patient = toEntity(row.patient);
+                        entityManager.persist(patient);
+                        patientSearchService.indexAfterCommit(patient);
+                        clinicalHistorySearchService.indexAfterCommit(patient.getId(), patient.getClinicalHistory());
+                        count++;
+                    }
+                }
+                detachAll();
+                return count;
+            });
+            return inserted == null ? 0 : inserted;
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            log.debug("Lote rechazado por la BD, se reintenta fila a fila", e);
+            return insertOneByOne(chunk);
+        }
+    }
+
+    private int insertOneByOne(List<ImportRow> chunk) {
+        int count = 0;
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                    Patient patient = toEntity(row.patient);
+                    entityManager.persist(patient);
+                    patientSearchService.indexAfterCommit(patient);
+                    clinicalHistorySearchService.indexAfterCommit(patient.getId(), patient.getClinicalHistory());
+                    detachAll();
+                });
+                count++;
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                row.error = describeFailure(e);
+            }
+        }
+        return count;
+    }
+
+    // Escribe el lote y suelta sus entidades (ver la nota de la clase sobre open-session-in-view)
+    private void detachAll() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Solo la restricción única del email es un duplicado; el resto va al log, no al informe
+    static String describeFailure(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Patient.EMAIL_CONSTRAINT)) {
+                return "Email ya registrado";
+            }
+        }
+        log.warn("Fila de importación rechazada por la BD", e);
+        return "No se pudo guardar la fila";
+    }
+
+    private Patient toEntity(PatientDTO dto) {
+        Patient patient = new Patient();
+        patient.setFirstName(dto.getFirstName());
+        patient.setLastName(dto.getLastName());
+        patient.setEmail(dto.getEmail());
+        patient.setPhone(dto.getPhone());
+        patient.setDateOfBirth(dto.getDateOfBirth());
+        patient.setGender(dto.getGender());
+        patient.setAddress(dto.getAddress());
+        patient.setOccupation(dto.getOccupation());
+
+        // El historial se persiste en cascada con el paciente, dentro del mismo lote
+        ClinicalHistory history = new ClinicalHistory();
+        ClinicalHistoryDTO historyDTO = dto.getClinicalHistory();
+        if (historyDTO != null) {
+            history.setMedicalHistory(historyDTO.getMedicalHistory());
+            history.setSurgicalHistory(historyDTO.getSurgicalHistory());
+            history.setFamilyHistory(historyDTO.getFamilyHistory());
+            history.setPastDiseases(historyDTO.getPastDiseases());
+            history.setComplaint(historyDTO.getComplaint());
+            history.setDietaryHabits(historyDTO.getDietaryHabits());
+            history.setPhysicalActivity(historyDTO.getPhysicalActivity());
+            history.setAlcoholConsumption(historyDTO.getAlcoholConsumption());
+            history.setTobaccoUse(historyDTO.getTobaccoUse());
+            history.setCurrentMedications(historyDTO.getCurrentMedications());
+            history.setAllergies(historyDTO.getAllergies());
+            history.setFoodIntolerances(historyDTO.getFoodIntolerances());
+            history.setNutritionalGoal(historyDTO.getNutritionalGoal());
+            history.setDietaryRestrictions(historyDTO.getDietaryRestrictions());
+            history.setNotes(historyDTO.getNotes());
+        }
+        patient.setClinicalHistory(history);
+        return patient;
+    }
+
+    // Mismas reglas que las columnas NOT NULL y las longitudes de patients
+    private static String validate(PatientDTO dto) {
+        if (isBlank(dto.getFirstName())) return "firstName es obligatorio";
+        if (isBlank(dto.getLastName())) return "lastName es obligatorio";
+        if (isBlank(dto.getEmail())) return "email es obligatorio";
+        if (!EMAIL.matcher(dto.getEmail()).matches()) return "email inválido";
+        if (isBlank(dto.getPhone())) return "phone es obligatorio";
+        if (dto.getDateOfBirth() == null) return "dateOfBirth es obligatorio";
+        if (dto.getDateOfBirth().isAfter(LocalDate.now())) return "dateOfBirth no puede ser futura";
+        if (isBlank(dto.getGender())) return "gender es obligatorio";
+        if (isBlank(dto.getAddress())) return "address es obligatorio";
+        String tooLong = firstTooLong(
+                "firstName", dto.getFirstName(), "lastName", dto.getLastName(), "email", dto.getEmail(),
+                "phone", dto.getPhone(), "gender", dto.getGender(), "address", dto.getAddress(),
+                "occupation", dto.getOccupation());
+        ClinicalHistoryDTO history = dto.getClinicalHistory();
+        if (tooLong == null && history != null) {
+            tooLong = firstTooLong(
+                    "clinicalHistory.physicalActivity", history.getPhysicalActivity(),
+                    "clinicalHistory.alcoholConsumption", history.getAlcoholConsumption(),
+                    "clinicalHistory.tobaccoUse", history.getTobaccoUse());
+        }
+        return tooLong == null ? null : tooLong + " supera los " + MAX_LENGTH + " caracteres";
+    }
+
+    // Pares nombre, valor: devuelve el nombre del primer campo más largo que su columna
+    private static String firstTooLong(String... fieldsAndValues) {
+        for (int i = 0; i < fieldsAndValues.length; i += 2) {
+            String value = fieldsAndValues[i + 1];
+            if (value != null && value.length() > MAX_LENGTH) {
+                return fieldsAndValues[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private List<ImportRow> parseNdjson(BufferedReader lines) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        String line;
+        long lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkMaxRows(rows.size());
+            try {
+                PatientDTO dto = objectMapper.readValue(line, PatientDTO.class);
+                trim(dto);
+                rows.add(new ImportRow(lineNumber, dto, null));
+            } catch (IOException e) {
+                rows.add(new ImportRow(lineNumber, null, "JSON inválido"));
+            }
+        }
+        return rows;
+    }
+
+    private List<ImportRow> parseCsv(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("El archivo CSV está vacío");
+        }
+        List<BiConsumer<PatientDTO, String>> setters = new ArrayList<>(header.size());
+        for (String column : header) {
+            BiConsumer<PatientDTO, String> setter = CSV_COLUMNS.get(
+                    column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+            if (setter == null) {
+                throw new IllegalArgumentException("Columna CSV no soportada: " + column);
+            }
+            setters.add(setter);
+        }
+
+        List<ImportRow> rows = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long lineNumber = csv.recordLine();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            checkMaxRows(rows.size());
+            if (record.size() != setters.size()) {
+                rows.add(new ImportRow(lineNumber, null,
+                        "Se esperaban " + setters.size() + " columnas y hay " + record.size()));
+                continue;
+            }
+            PatientDTO dto = new PatientDTO();
+            String error = null;
+            for (int i = 0; i < setters.size(); i++) {
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    setters.get(i).accept(dto, value);
+                } catch (DateTimeParseException e) {
+                    error = "dateOfBirth debe tener formato AAAA-MM-DD";
+                }
+            }
+            rows.add(new ImportRow(lineNumber, dto, error));
+        }
+        return rows;
+    }
+
+    private void checkMaxRows(int current) {
+        if (current >= maxRows) {
+            throw new IllegalArgumentException("El archivo supera el máximo de " + maxRows + " filas");
+        }
+    }
+
+    private static void trim(PatientDTO dto) {
+        dto.setId(null);
+        if (dto.getFirstName() != null) dto.setFirstName(dto.getFirstName().trim());
+        if (dto.getLastName() != null) dto.setLastName(dto.getLastName().trim());
+        if (dto.getEmail() != null) dto.setEmail(dto.getEmail().trim());
+        if (dto.getPhone() != null) dto.setPhone(dto.getPhone().trim());
+        if (dto.getGender() != null) dto.setGender(dto.getGender().trim());
+        if (dto.getAddress() != null) dto.setAddress(dto.getAddress().trim());
+    }
+
+    /**
+     * Lector CSV mínimo (RFC 4180): separador coma, campos entre comillas dobles
+     * con "" como escape y saltos de línea dentro de comillas.
+     */
+    private static final class CsvReader {
+        private final Reader reader;
+        private long line = 1;
+        private long recordLine;
+        private int pending = -2;
+
+        private CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        long recordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Comillas sin cerrar en la línea " + recordLine);
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.nutricion.entity.Anthropometry;
+import com.nutricion.entity.Biometrics;
+import com.nutricion.entity.ClinicalHistory;
+import com.nutricion.entity.Patient;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Escribe un Patient y sus secciones como JSON directamente sobre un JsonGenerator,
+ * sin construir PatientDTO ni dejar que Jackson lo recorra por reflexión.
+ *
+ * La salida es idéntica byte a byte a serializar con el ObjectMapper de la aplicación
+ * el PatientDTO que devuelve PatientService: mismo orden de campos, null incluidos y
+ * fechas ISO. Al añadir un campo a un DTO hay que añadirlo aquí en la misma posición;
+ * PatientJsonWriterTest compara ambas salidas.
+ */
+public final class PatientJsonWriter {
+
+    private PatientJsonWriter() {
+    }
+
+    public static void write(JsonGenerator g, Patient patient) throws IOException {
+        g.writeStartObject();
+        number(g, "id", patient.getId());
+        g.writeStringField("firstName", patient.getFirstName());
+        g.writeStringField("lastName", patient.getLastName());
+        g.writeStringField("email", patient.getEmail());
+        g.writeStringField("phone", patient.getPhone());
+        date(g, "dateOfBirth", patient.getDateOfBirth());
+        g.writeStringField("gender", patient.getGender());
+        g.writeStringField("address", patient.getAddress());
+        g.writeStringField("occupation", patient.getOccupation());
+        date(g, "createdAt", patient.getCreatedAt());
+        number(g, "version", patient.getVersion());
+
+        g.writeFieldName("clinicalHistory");
+        writeClinicalHistory(g, patient.getClinicalHistory());
+        g.writeFieldName("biometrics");
+        writeBiometrics(g, patient.getBiometrics());
+        g.writeFieldName("anthropometry");
+        writeAnthropometry(g, patient.getAnthropometry());
+        g.writeEndObject();
+    }
+
+    private static void writeClinicalHistory(JsonGenerator g, ClinicalHistory history) throws IOException {
+        if (history == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject();
+        number(g, "id", history.getId());
+        g.writeStringField("medicalHistory", history.getMedicalHistory());
+        g.writeStringField("surgicalHistory", history.getSurgicalHistory());
+        g.writeStringField("familyHistory", history.getFamilyHistory());
+        g.writeStringField("pastDiseases", history.getPastDiseases());
+        g.writeStringField("complaint", history.getComplaint());
+        g.writeStringField("dietaryHabits", history.getDietaryHabits());
+        g.writeStringField("physicalActivity", history.getPhysicalActivity());
+        g.writeStringField("alcoholConsumption", history.getAlcoholConsumption());
+        g.writeStringField("tobaccoUse", history.getTobaccoUse());
+        g.writeStringField("currentMedications", history.getCurrentMedications());
+        g.writeStringField("allergies", history.getAllergies());
+        g.writeStringField("foodIntolerances", history.getFoodIntolerances());
+        g.writeStringField("nutritionalGoal", history.getNutritionalGoal());
+        g.writeStringField("dietaryRestrictions", history.getDietaryRestrictions());
+        g.writeStringField("notes", history.getNotes());
+        g.writeEndObject();
+    }
+
+    private static void writeBiometrics(JsonGenerator g, Biometrics biometrics) throws IOException {
+        if (biometrics == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject();
+        number(g, "id", biometrics.getId());
+        number(g, "glucose", biometrics.getGlucose());
+        number(g, "hemoglobinA1c", biometrics.getHemoglobinA1c());
+        number(g, "totalCholesterol", biometrics.getTotalCholesterol());
+        number(g, "ldlCholesterol", biometrics.getLdlCholesterol());
+        number(g, "hdlCholesterol", biometrics.getHdlCholesterol());
+        number(g, "triglycerides", biometrics.getTriglycerides());
+        number(g, "vldlCholesterol", biometrics.getVldlCholesterol());
+        number(g, "ast", biometrics.getAst());
+        number(g, "alt", biometrics.getAlt());
+        number(g, "ggt", biometrics.getGgt());
+        number(g, "bilirubin", biometrics.getBilirubin());
+        number(g, "creatinine", biometrics.getCreatinine());
+        number(g, "bun", biometrics.getBun());
+        number(g, "totalProteins", biometrics.getTotalProteins());
+        number(g, "albumin", biometrics.getAlbumin());
+        number(g, "prealbumin", biometrics.getPrealbumin());
+        number(g, "hemoglobin", biometrics.getHemoglobin());
+        number(g, "hematocrit", biometrics.getHematocrit());
+        number(g, "whiteBloodCells", biometrics.getWhiteBloodCells());
+        number(g, "platelets", biometrics.getPlatelets());
+        number(g, "vitaminB12", biometrics.getVitaminB12());
+        number(g, "folacin", biometrics.getFolacin());
+        number(g, "iron", biometrics.getIron());
+        number(g, "ferritin", biometrics.getFerritin());
+        number(g, "zinc", biometrics.getZinc());
+        number(g, "calcium", biometrics.getCalcium());
+        number(g, "magnesium", biometrics.getMagnesium());
+        number(g, "phosphorus", biometrics.getPhosphorus());
+        date(g, "measuredDate", biometrics.getMeasuredDate());
+        g.writeEndObject();
+    }
+
+    private static void writeAnthropometry(JsonGenerator g, Anthropometry anthropometry) throws IOException {
+        if (anthropometry == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject();
+        number(g, "id", anthropometry.getId());
+        number(g, "weight", anthropometry.getWeight());
+        number(g, "height", anthropometry.getHeight());
+        number(g, "bmi", anthropometry.getBmi());
+        number(g, "waistCircumference", anthropometry.getWaistCircumference());
+        number(g, "hipCircumference", anthropometry.getHipCircumference());
+        number(g, "waistHipRatio", anthropometry.getWaistHipRatio());
+        number(g, "armCircumference", anthropometry.getArmCircumference());
+        number(g, "thighCircumference", anthropometry.getThighCircumference());
+        number(g, "tricepsSkinFold", anthropometry.getTricepsSkinFold());
+        number(g, "bicepsSkinFold", anthropometry.getBicepsSkinFold());
+        number(g, "subscapularSkinFold", anthropometry.getSubscapularSkinFold());
+        number(g, "suprailiacSkinFold", anthropometry.getSuprailiacSkinFold());
+        number(g, "muscleMass", anthropometry.getMuscleMass());
+        number(g, "boneMass", anthropometry.getBoneMass());
+        number(g, "waterPercentage", anthropometry.getWaterPercentage());
+        number(g, "fatPercentage", anthropometry.getFatPercentage());
+        date(g, "measuredDate", anthropometry.getMeasuredDate());
+        g.writeEndObject();
+    }
+
+    private static void number(JsonGenerator g, String name, Long value) throws IOException {
+        g.writeFieldName(name);
+        if (value == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(value.longValue());
+        }
+    }
+
+    // Igual que el serializador de Double de Jackson: writeNumber(double), que usa Double.toString
+    private static void number(JsonGenerator g, String name, Double value) throws IOException {
+        g.writeFieldName(name);
+        if (value == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(value.doubleValue());
+        }
+    }
+
+    // Mismo texto que LocalDate.toString (ISO-8601, AAAA-MM-DD) y que JavaTimeModule sin
+    // WRITE_DATES_AS_TIMESTAMPS, escrito desde un char[10] sin el StringBuilder y el String de toString.
+    // Las fechas de pacientes tienen siempre años de 4 cifras; otras van por toString
+    private static void date(JsonGenerator g, String name, LocalDate value) throws IOException {
+        g.writeFieldName(name);
+        if (value == null) {
+            g.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 1000 || year > 9999) {
+            g.writeString(value.toString());
+            return;
+        }
+        char[] text = {
+                digit(year / 1000), digit(year / 100), digit(year / 10), digit(year), '-',
+                digit(value.getMonthValue() / 10), digit(value.getMonthValue()), '-',
+                digit(value.getDayOfMonth() / 10), digit(value.getDayOfMonth())
+        };
+        g.writeString(text, 0, text.length);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,165 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nutricion.dto.PatientDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Respuestas de GET /api/patients/{id} ya codificadas, por paciente y versión, en
+ * cada formato negociable (JSON, CBOR y Smile).
+ *
+ * Un acierto evita cargar el paciente, convertirlo a DTO y serializarlo: el
+ * controlador escribe el array guardado tal cual. La entrada solo vale para la
+ * versión con la que se guardó, así que una lectura con otra versión es un fallo
+ * aunque la entrada siga aquí; PatientService además la descarta al confirmar cada
+ * cambio para liberar la memoria. La caché está acotada por bytes, no por número
+ * de pacientes.
+ */
+@Component
+public class PatientResponseCache {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    // En orden de preferencia cuando Accept admite varios (*/*, application/*): JSON primero
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);
+    // Sufijo del ETag por formato, en el orden de FORMATS; JSON conserva el ETag "<versión>"
+    private static final List<String> ETAG_SUFFIXES = List.of("", "-cbor", "-smile");
+    // Coste fijo aproximado de cada entrada (clave, array, nodo de Caffeine)
+    private static final int ENTRY_OVERHEAD = 128;
+
+    // format = posición en FORMATS
+    private record Key(long id, int format) {
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final ObjectMapper[] mappers;
+    private final Cache<Key, Entry> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public PatientResponseCache(ObjectMapper objectMapper,
+                                MappingJackson2CborHttpMessageConverter cborConverter,
+                                MappingJackson2SmileHttpMessageConverter smileConverter,
+                                ObjectProvider<MeterRegistry> meterRegistry,
+                                @Value("${app.cache.patient-responses.max-size:32MB}") DataSize maxSize) {
+        this.mappers = new ObjectMapper[] {
+                objectMapper, cborConverter.getObjectMapper(), smileConverter.getObjectMapper()
+        };
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Entry entry) -> ENTRY_OVERHEAD + entry.body().length)
+                .build();
+        // Contadores propios: para Caffeine una entrada de otra versión también es un acierto
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = registry.counter("patient.response.cache.requests", "result", "hit");
+        this.misses = registry.counter("patient.response.cache.requests", "result", "miss");
+        Gauge.builder("patient.response.cache.size", cache,
+                        c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Formato de respuesta según la cabecera Accept: el primero de {@link #FORMATS} que
+     * admita el tipo de mayor calidad. JSON si no hay Accept; null si no se admite
+     * ninguno o la cabecera no es válida, y entonces decide la negociación de Spring.
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        requested.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : requested) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ETag fuerte del paciente en esa versión y formato: cada formato son bytes distintos, así
+     * que cada uno lleva su propio ETag. Con {@code format} null, el de JSON.
+     */
+    public String etag(long version, MediaType format) {
+        int index = format == null ? 0 : FORMATS.indexOf(format);
+        return "\"" + version + ETAG_SUFFIXES.get(index) + "\"";
+    }
+
+    /**
+     * Si hay alguna respuesta guardada del paciente en ese formato, sea de la versión que sea.
+     * No cuenta como acierto ni como fallo.
+     */
+    public boolean contains(Long id, MediaType format) {
+        return format != null && cache.getIfPresent(new Key(id, FORMATS.indexOf(format))) != null;
+    }
+
+    /**
+     * Respuesta guardada del paciente en esa versión y formato, o null.
+     */
+    public byte[] get(Long id, long version, MediaType format) {
+        Entry entry = cache.getIfPresent(new Key(id, FORMATS.indexOf(format)));
+        if (entry == null || entry.version() != version) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.body();
+    }
+
+    /**
+     * Codifica el paciente en el formato pedido y lo guarda bajo su versión. Si la caché ya
+     * tiene una versión más nueva (otra petición se adelantó tras un cambio), la conserva.
+     */
+    public byte[] put(PatientDTO patient, MediaType format) {
+        int index = FORMATS.indexOf(format);
+        byte[] body;
+        try {
+            body = mappers[index].writeValueAsBytes(patient);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        Entry entry = new Entry(patient.getVersion(), body);
+        cache.asMap().merge(new Key(patient.getId(), index), entry,
+                (existing, fresh) -> existing.version() > fresh.version() ? existing : fresh);
+        return body;
+    }
+
+    public void evictAfterCommit(Long id) {
+        AfterCommit.run(() -> {
+            for (int format = 0; format < FORMATS.size(); format++) {
+                cache.invalidate(new Key(id, format));
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.PatientSearchResultDTO;
+import com.nutricion.entity.Patient;
+import com.nutricion.repository.PatientRepository;
+import com.nutricion.search.TrigramIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de pacientes por nombre, apellido o email sin consultar la BD.
+ *
+ * El índice se construye al arrancar y se mantiene con los cambios de
+ * PatientService y PatientImportService, aplicados solo cuando su transacción
+ * confirma. Como cada nodo tiene su propio índice, se reconstruye periódicamente
+ * para incorporar los cambios hechos en otros nodos y compactar las listas.
+ */
+@Service
+public class PatientSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchService.class);
+
+    // Pesos de firstName, lastName y email
+    private static final double[] FIELD_WEIGHTS = {1.0, 1.0, 0.5};
+
+    private final PatientRepository patientRepository;
+    private final RebuildableIndex<TrigramIndex> index = new RebuildableIndex<>(new TrigramIndex(FIELD_WEIGHTS));
+
+    @Value("${app.search.default-limit:10}")
+    private int defaultLimit;
+
+    @Value("${app.search.max-limit:50}")
+    private int maxLimit;
+
+    public PatientSearchService(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.search.rebuild-cron:0 15 * * * *}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Si la carga falla se sigue sirviendo el índice anterior
+        index.rebuild(() -> {
+            TrigramIndex fresh = new TrigramIndex(FIELD_WEIGHTS);
+            for (Object[] row : patientRepository.findSearchFields()) {
+                fresh.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+            }
+            return fresh;
+        });
+        log.info("Índice de búsqueda de pacientes construido: {} pacientes en {} ms",
+                index.get().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<PatientSearchResultDTO> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("El parámetro q es obligatorio");
+        }
+        int k = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        return index.get().search(query, k).stream()
+                .map(hit -> PatientSearchResultDTO.builder()
+                        .id(hit.id())
+                        .firstName(hit.fields()[0])
+                        .lastName(hit.fields()[1])
+                        .email(hit.fields()[2])
+                        .score(hit.score())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    public void indexAfterCommit(Patient patient) {
+        long id = patient.getId();
+        String firstName = patient.getFirstName();
+        String lastName = patient.getLastName();
+        String email = patient.getEmail();
+        index.applyAfterCommit(target -> target.put(id, firstName, lastName, email));
+    }
+
+    public void removeAfterCommit(Long id) {
+        index.applyAfterCommit(target -> target.remove(id));
+    }
+}
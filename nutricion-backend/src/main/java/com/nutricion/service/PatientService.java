@@ -1,17 +1,36 @@
 package com.nutricion.service;
 
 import com.nutricion.dto.PatientDTO;
+import com.nutricion.dto.PatientPageDTO;
 import com.nutricion.dto.ClinicalHistoryDTO;
 import com.nutricion.dto.BiometricsDTO;
 import com.nutricion.dto.AnthropometryDTO;
 import com.nutricion.entity.*;
 import com.nutricion.repository.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -20,15 +39,48 @@ public class PatientService {
     private final ClinicalHistoryRepository clinicalHistoryRepository;
     private final BiometricsRepository biometricsRepository;
     private final AnthropometryRepository anthropometryRepository;
+    private final BiometricsPanelRepository biometricsPanelRepository;
+    private final AnthropometryMeasurementRepository anthropometryMeasurementRepository;
+    private final PatientSearchService patientSearchService;
+    private final ClinicalHistorySearchService clinicalHistorySearchService;
+    private final PatientResponseCache patientResponseCache;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    private static final int EXPORT_FLUSH_EVERY = 500;
+    private static final LocalDate HISTORY_MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate HISTORY_MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final Set<String> READ_ONLY_FIELDS = Set.of("id");
+    private static final Set<String> ANTHROPOMETRY_READ_ONLY_FIELDS = Set.of("id", "bmi", "waistHipRatio");
+
+    @Value("${app.pagination.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
 
     public PatientService(PatientRepository patientRepository, 
                           ClinicalHistoryRepository clinicalHistoryRepository,
                           BiometricsRepository biometricsRepository,
-                          AnthropometryRepository anthropometryRepository) {
+                          AnthropometryRepository anthropometryRepository,
+                          BiometricsPanelRepository biometricsPanelRepository,
+                          AnthropometryMeasurementRepository anthropometryMeasurementRepository,
+                          PatientSearchService patientSearchService,
+                          ClinicalHistorySearchService clinicalHistorySearchService,
+                          PatientResponseCache patientResponseCache,
+                          EntityManager entityManager,
+                          ObjectMapper objectMapper) {
         this.patientRepository = patientRepository;
         this.clinicalHistoryRepository = clinicalHistoryRepository;
         this.biometricsRepository = biometricsRepository;
         this.anthropometryRepository = anthropometryRepository;
+        this.biometricsPanelRepository = biometricsPanelRepository;
+        this.anthropometryMeasurementRepository = anthropometryMeasurementRepository;
+        this.patientSearchService = patientSearchService;
+        this.clinicalHistorySearchService = clinicalHistorySearchService;
+        this.patientResponseCache = patientResponseCache;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
     }
 
     public PatientDTO createPatient(PatientDTO patientDTO) {
@@ -48,23 +100,116 @@ public class PatientService {
         patient.setClinicalHistory(clinicalHistory);
 
         Patient savedPatient = patientRepository.save(patient);
+        patientSearchService.indexAfterCommit(savedPatient);
         return convertToDTO(savedPatient);
     }
 
+    @Transactional(readOnly = true)
     public PatientDTO getPatientById(Long id) {
-        Patient patient = patientRepository.findById(id)
+        // Si el paciente está en la caché de segundo nivel, find() lo resuelve junto con sus
+        // secciones sin SQL. Si no, una única consulta con el grafo carga las cuatro entidades
+        // y las deja en caché (un find() en frío haría una consulta por sección)
+        boolean cached = entityManager.getEntityManagerFactory().getCache().contains(Patient.class, id);
+        Patient patient = (cached ? patientRepository.findById(id) : patientRepository.findWithSectionsById(id))
                 .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
         return convertToDTO(patient);
     }
 
-    public List<PatientDTO> getAllPatients() {
-        return patientRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Versión actual del paciente, sin cargar sus secciones. Con el paciente en la caché
+     * de segundo nivel no ejecuta SQL; si no, lee solo la columna version.
+     */
+    @Transactional(readOnly = true)
+    public long getPatientVersion(Long id) {
+        Long cached = getCachedPatientVersion(id);
+        if (cached != null) {
+            return cached;
+        }
+        return patientRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+    }
+
+    /**
+     * Versión del paciente si está en la caché de segundo nivel, o null. No abre transacción
+     * ni pide conexión: find() se resuelve en la caché.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getCachedPatientVersion(Long id) {
+        if (!entityManager.getEntityManagerFactory().getCache().contains(Patient.class, id)) {
+            return null;
+        }
+        // Las secciones son LAZY: find() no las resuelve. Un paciente borrado puede seguir
+        // marcado en la caché y find() devuelve null; entonces decide la consulta
+        Patient patient = entityManager.find(Patient.class, id);
+        return patient != null ? patient.getVersion() : null;
+    }
+
+    @Transactional(readOnly = true)
+    public PatientPageDTO getAllPatients(String cursor, Integer size, String sort, String direction) {
+        int pageSize = PatientCursor.pageSize(size, defaultPageSize, maxPageSize);
+        PatientCursor position = PatientCursor.of(cursor, sort, direction);
+        Long afterId = position.afterId();
+        String afterLastName = position.afterLastName();
+
+        Sort.Direction dir = position.ascending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // pageSize + 1: ver PatientCursor.Page
+        List<Patient> rows;
+        if (PatientCursor.SORT_ID.equals(position.sortKey())) {
+            PageRequest limit = PageRequest.of(0, pageSize + 1, Sort.by(dir, "id"));
+            if (afterId == null) {
+                rows = patientRepository.findAllBy(limit);
+            } else if (position.ascending()) {
+                rows = patientRepository.findByIdGreaterThan(afterId, limit);
+            } else {
+                rows = patientRepository.findByIdLessThan(afterId, limit);
+            }
+        } else {
+            PageRequest limit = PageRequest.of(0, pageSize + 1, Sort.by(dir, "lastName").and(Sort.by(dir, "id")));
+            if (afterId == null) {
+                rows = patientRepository.findAllBy(limit);
+            } else if (position.ascending()) {
+                rows = patientRepository.findByLastNameAfter(afterLastName, afterId, limit);
+            } else {
+                rows = patientRepository.findByLastNameBefore(afterLastName, afterId, limit);
+            }
+        }
+
+        PatientCursor.Page<Patient> page = position.page(rows, pageSize, Patient::getId, Patient::getLastName);
+
+        return PatientPageDTO.builder()
+                .content(page.rows().stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .size(pageSize)
+                .sort(position.sortKey())
+                .direction(position.direction())
+                .next(page.next())
+                .build();
+    }
+
+    // Escribe un paciente por línea (NDJSON) mientras lee del cursor; la memoria no crece con el número de filas.
+    // Cada paciente se escribe desde la entidad con PatientJsonWriter, sin construir el PatientDTO
+    @Transactional(readOnly = true)
+    public void exportPatients(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+        try (Stream<Patient> patients = patientRepository.streamAllForExport()) {
+            int written = 0;
+            for (Patient patient : (Iterable<Patient>) patients::iterator) {
+                PatientJsonWriter.write(generator, patient);
+                generator.writeRaw('\n');
+                // El detach (en cascada a las secciones) evita que el contexto de persistencia acumule entidades
+                entityManager.detach(patient);
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
     }
 
     public PatientDTO updatePatient(Long id, PatientDTO patientDTO) {
-        Patient patient = patientRepository.findById(id)
+        Patient patient = patientRepository.findWithSectionsById(id)
                 .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
 
         patient.setFirstName(patientDTO.getFirstName());
@@ -75,7 +220,10 @@ public class PatientService {
         patient.setAddress(patientDTO.getAddress());
         patient.setOccupation(patientDTO.getOccupation());
 
-        Patient updatedPatient = patientRepository.save(patient);
+        // El flush aplica el UPDATE ya, así el DTO lleva la versión nueva
+        Patient updatedPatient = patientRepository.saveAndFlush(patient);
+        patientSearchService.indexAfterCommit(updatedPatient);
+        patientResponseCache.evictAfterCommit(id);
         return convertToDTO(updatedPatient);
     }
 
@@ -84,10 +232,13 @@ public class PatientService {
             throw new RuntimeException("Paciente no encontrado");
         }
         patientRepository.deleteById(id);
+        patientSearchService.removeAfterCommit(id);
+        clinicalHistorySearchService.removeAfterCommit(id);
+        patientResponseCache.evictAfterCommit(id);
     }
 
     public PatientDTO updateClinicalHistory(Long patientId, ClinicalHistoryDTO historyDTO) {
-        Patient patient = patientRepository.findById(patientId)
+        Patient patient = patientRepository.findWithSectionsById(patientId)
                 .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
 
         ClinicalHistory history = patient.getClinicalHistory();
@@ -95,7 +246,263 @@ public class PatientService {
             history = new ClinicalHistory();
         }
 
-        // Update all fields
+        copyClinicalHistory(historyDTO, history);
+
+        history = clinicalHistoryRepository.save(history);
+        patient.setClinicalHistory(history);
+        Patient updatedPatient = patientRepository.save(patient);
+        touch(updatedPatient);
+        clinicalHistorySearchService.indexAfterCommit(patientId, history);
+
+        return convertToDTO(updatedPatient);
+    }
+
+    // Cada llamada añade un panel al historial; la fila biometrics del paciente guarda solo el más reciente
+    public PatientDTO updateBiometrics(Long patientId, BiometricsDTO biometricsDTO) {
+        Patient patient = patientRepository.findWithSectionsById(patientId)
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+
+        LocalDate measuredDate = biometricsDTO.getMeasuredDate() != null
+                ? biometricsDTO.getMeasuredDate()
+                : LocalDate.now();
+        BiometricsPanel panel = new BiometricsPanel();
+        panel.setPatient(patient);
+        panel.setMeasuredDate(measuredDate);
+        panel.setAnalytes(toAnalytes(biometricsDTO));
+        biometricsPanelRepository.save(panel);
+
+        Biometrics biometrics = patient.getBiometrics();
+        if (biometrics == null) {
+            biometrics = new Biometrics();
+        } else if (biometrics.getMeasuredDate() != null && measuredDate.isBefore(biometrics.getMeasuredDate())) {
+            // Panel antiguo cargado a posteriori: solo entra en el historial
+            return convertToDTO(patient);
+        }
+
+        copyBiometrics(biometricsDTO, biometrics);
+        biometrics.setMeasuredDate(measuredDate);
+
+        biometrics = biometricsRepository.save(biometrics);
+        patient.setBiometrics(biometrics);
+        Patient updatedPatient = patientRepository.save(patient);
+        touch(updatedPatient);
+
+        return convertToDTO(updatedPatient);
+    }
+
+    /**
+     * Historial de paneles de laboratorio. Sin fechas devuelve los {@code limit} más
+     * recientes (del más nuevo al más antiguo); con {@code from} y/o {@code to} devuelve
+     * los del rango en orden cronológico, como mucho {@code limit}.
+     */
+    @Transactional(readOnly = true)
+    public List<BiometricsDTO> getBiometricsHistory(Long patientId, Integer limit, LocalDate from, LocalDate to) {
+        PageRequest page = PageRequest.of(0, limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize));
+        List<BiometricsPanel> panels;
+        if (from == null && to == null) {
+            panels = biometricsPanelRepository.findByPatientIdOrderByMeasuredDateDescIdDesc(patientId, page);
+        } else {
+            LocalDate start = from == null ? HISTORY_MIN_DATE : from;
+            LocalDate end = to == null ? HISTORY_MAX_DATE : to;
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("La fecha inicial es posterior a la final");
+            }
+            panels = biometricsPanelRepository.findByPatientIdAndMeasuredDateBetweenOrderByMeasuredDateAscIdAsc(
+                    patientId, start, end, page);
+        }
+        // Solo se comprueba el paciente cuando no hay resultados: el caso normal es una única consulta
+        if (panels.isEmpty() && !patientRepository.existsById(patientId)) {
+            throw new RuntimeException("Paciente no encontrado");
+        }
+        return panels.stream().map(this::convertPanelToDTO).collect(Collectors.toList());
+    }
+
+    // Igual que la biometría: cada medición se añade al historial y la fila anthropometry guarda la más reciente
+    public PatientDTO updateAnthropometry(Long patientId, AnthropometryDTO anthropometryDTO) {
+        Patient patient = patientRepository.findWithSectionsById(patientId)
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+
+        LocalDate measuredDate = anthropometryDTO.getMeasuredDate() != null
+                ? anthropometryDTO.getMeasuredDate()
+                : LocalDate.now();
+        AnthropometryMeasurement measurement = new AnthropometryMeasurement();
+        measurement.setPatient(patient);
+        measurement.setMeasuredDate(measuredDate);
+        copyMeasurement(anthropometryDTO, measurement);
+        anthropometryMeasurementRepository.save(measurement);
+
+        Anthropometry anthropometry = patient.getAnthropometry();
+        if (anthropometry == null) {
+            anthropometry = new Anthropometry();
+        } else if (anthropometry.getMeasuredDate() != null && measuredDate.isBefore(anthropometry.getMeasuredDate())) {
+            // Medición antigua cargada a posteriori: solo entra en el historial
+            return convertToDTO(patient);
+        }
+
+        copyAnthropometry(anthropometryDTO, anthropometry);
+        anthropometry.setMeasuredDate(measuredDate);
+        anthropometry.calculateMetrics();
+
+        anthropometry = anthropometryRepository.save(anthropometry);
+        patient.setAnthropometry(anthropometry);
+        Patient updatedPatient = patientRepository.save(patient);
+        touch(updatedPatient);
+
+        return convertToDTO(updatedPatient);
+    }
+
+    // Las secciones viven en otras tablas, así que cambiarlas no modifica la fila patients ni su
+    // versión. Se fuerza el incremento en la BD en este momento para que el DTO devuelto lleve ya
+    // la versión nueva. El UPDATE comprueba la versión leída al cargar el paciente: si otra
+    // petición lo modificó entretanto, falla con OptimisticLockException (409 en el controlador)
+    private void touch(Patient patient) {
+        entityManager.flush();
+        entityManager.lock(patient, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        patientResponseCache.evictAfterCommit(patient.getId());
+    }
+
+    /**
+     * PATCH con JSON Merge Patch (RFC 7396) de una sección: solo cambian los campos presentes
+     * en {@code patch} (null borra el valor) y, con @DynamicUpdate, el UPDATE solo incluye esas
+     * columnas. Un patch que no cambia nada no escribe ni sube la versión. Con
+     * {@code sectionOnly} no se leen las demás secciones y el DTO devuelto lleva solo id,
+     * versión y la sección. A diferencia del PUT, corrige la medición vigente en lugar de
+     * añadir una: en biometría y antropometría se corrige con ella su fila del historial.
+     */
+    public PatientDTO patchClinicalHistory(Long patientId, JsonNode patch, boolean sectionOnly) {
+        Patient patient = loadForPatch(patientId, sectionOnly);
+        ClinicalHistory history = patient.getClinicalHistory() != null ? patient.getClinicalHistory() : new ClinicalHistory();
+
+        ClinicalHistoryDTO patched = mergePatch(convertClinicalHistoryToDTO(history), patch, READ_ONLY_FIELDS);
+        if (!patched.equals(convertClinicalHistoryToDTO(history))) {
+            copyClinicalHistory(patched, history);
+            if (history.getId() == null) {
+                patient.setClinicalHistory(clinicalHistoryRepository.save(history));
+            }
+            touch(patient);
+            clinicalHistorySearchService.indexAfterCommit(patientId, history);
+        }
+
+        if (!sectionOnly) {
+            return convertToDTO(patient);
+        }
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .version(patient.getVersion())
+                .clinicalHistory(convertClinicalHistoryToDTO(patient.getClinicalHistory()))
+                .build();
+    }
+
+    public PatientDTO patchBiometrics(Long patientId, JsonNode patch, boolean sectionOnly) {
+        Patient patient = loadForPatch(patientId, sectionOnly);
+        Biometrics biometrics = patient.getBiometrics() != null ? patient.getBiometrics() : new Biometrics();
+
+        BiometricsDTO patched = mergePatch(convertBiometricsToDTO(biometrics), patch, READ_ONLY_FIELDS);
+        if (!patched.equals(convertBiometricsToDTO(biometrics))) {
+            LocalDate previousDate = biometrics.getMeasuredDate();
+            copyBiometrics(patched, biometrics);
+            biometrics.setMeasuredDate(patched.getMeasuredDate() != null ? patched.getMeasuredDate() : LocalDate.now());
+            if (biometrics.getId() == null) {
+                patient.setBiometrics(biometricsRepository.save(biometrics));
+            }
+            correctLatestPanel(patient, previousDate, biometrics.getMeasuredDate(), patched);
+            touch(patient);
+        }
+
+        if (!sectionOnly) {
+            return convertToDTO(patient);
+        }
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .version(patient.getVersion())
+                .biometrics(convertBiometricsToDTO(patient.getBiometrics()))
+                .build();
+    }
+
+    public PatientDTO patchAnthropometry(Long patientId, JsonNode patch, boolean sectionOnly) {
+        Patient patient = loadForPatch(patientId, sectionOnly);
+        Anthropometry anthropometry = patient.getAnthropometry() != null ? patient.getAnthropometry() : new Anthropometry();
+
+        // bmi y waistHipRatio se calculan a partir de las medidas
+        AnthropometryDTO patched = mergePatch(convertAnthropometryToDTO(anthropometry), patch, ANTHROPOMETRY_READ_ONLY_FIELDS);
+        if (!patched.equals(convertAnthropometryToDTO(anthropometry))) {
+            LocalDate previousDate = anthropometry.getMeasuredDate();
+            copyAnthropometry(patched, anthropometry);
+            anthropometry.setMeasuredDate(patched.getMeasuredDate() != null ? patched.getMeasuredDate() : LocalDate.now());
+            anthropometry.calculateMetrics();
+            if (anthropometry.getId() == null) {
+                patient.setAnthropometry(anthropometryRepository.save(anthropometry));
+            }
+            correctLatestMeasurement(patient, previousDate, anthropometry.getMeasuredDate(), patched);
+            touch(patient);
+        }
+
+        if (!sectionOnly) {
+            return convertToDTO(patient);
+        }
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .version(patient.getVersion())
+                .anthropometry(convertAnthropometryToDTO(patient.getAnthropometry()))
+                .build();
+    }
+
+    // La fila biometrics es el último panel del historial: el PATCH corrige ese panel (el último de
+    // la fecha que tenía la sección) o, si no existe, lo añade, para que el historial no diverja
+    private void correctLatestPanel(Patient patient, LocalDate previousDate, LocalDate measuredDate, BiometricsDTO values) {
+        BiometricsPanel panel = Optional.ofNullable(previousDate)
+                .flatMap(date -> biometricsPanelRepository.findFirstByPatientIdAndMeasuredDateOrderByIdDesc(patient.getId(), date))
+                .orElseGet(BiometricsPanel::new);
+        panel.setPatient(patient);
+        panel.setMeasuredDate(measuredDate);
+        panel.setAnalytes(toAnalytes(values));
+        biometricsPanelRepository.save(panel);
+    }
+
+    // Igual que correctLatestPanel, con la medición que alimenta /anthropometry/trend
+    private void correctLatestMeasurement(Patient patient, LocalDate previousDate, LocalDate measuredDate,
+                                          AnthropometryDTO values) {
+        AnthropometryMeasurement measurement = Optional.ofNullable(previousDate)
+                .flatMap(date -> anthropometryMeasurementRepository.findFirstByPatientIdAndMeasuredDateOrderByIdDesc(
+                        patient.getId(), date))
+                .orElseGet(AnthropometryMeasurement::new);
+        measurement.setPatient(patient);
+        measurement.setMeasuredDate(measuredDate);
+        copyMeasurement(values, measurement);
+        measurement.calculateMetrics();
+        anthropometryMeasurementRepository.save(measurement);
+    }
+
+    // Sin las demás secciones basta el paciente: la que se modifica se resuelve al acceder (LAZY o caché)
+    private Patient loadForPatch(Long patientId, boolean sectionOnly) {
+        return (sectionOnly ? patientRepository.findById(patientId) : patientRepository.findWithSectionsById(patientId))
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+    }
+
+    // Aplica el merge patch sobre el DTO actual de la sección. Solo admite objetos: un patch que
+    // no es un objeto reemplazaría la sección entera, y para eso está el PUT
+    private <T> T mergePatch(T current, JsonNode patch, Set<String> readOnlyFields) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("El merge patch debe ser un objeto JSON");
+        }
+        patch.fieldNames().forEachRemaining(field -> {
+            if (readOnlyFields.contains(field)) {
+                throw new IllegalArgumentException("Campo de solo lectura: " + field);
+            }
+        });
+        try {
+            return objectMapper.readerForUpdating(current)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Merge patch inválido: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Merge patch inválido", e);
+        }
+    }
+
+    // Campos editables de cada sección; los usan PUT (todos) y PATCH (tras aplicar el merge patch)
+    private void copyClinicalHistory(ClinicalHistoryDTO historyDTO, ClinicalHistory history) {
         history.setMedicalHistory(historyDTO.getMedicalHistory());
         history.setSurgicalHistory(historyDTO.getSurgicalHistory());
         history.setFamilyHistory(historyDTO.getFamilyHistory());
@@ -111,24 +518,9 @@ public class PatientService {
         history.setNutritionalGoal(historyDTO.getNutritionalGoal());
         history.setDietaryRestrictions(historyDTO.getDietaryRestrictions());
         history.setNotes(historyDTO.getNotes());
-
-        history = clinicalHistoryRepository.save(history);
-        patient.setClinicalHistory(history);
-        Patient updatedPatient = patientRepository.save(patient);
-
-        return convertToDTO(updatedPatient);
     }
 
-    public PatientDTO updateBiometrics(Long patientId, BiometricsDTO biometricsDTO) {
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
-
-        Biometrics biometrics = patient.getBiometrics();
-        if (biometrics == null) {
-            biometrics = new Biometrics();
-        }
-
-        // Update all fields
+    private void copyBiometrics(BiometricsDTO biometricsDTO, Biometrics biometrics) {
         biometrics.setGlucose(biometricsDTO.getGlucose());
         biometrics.setHemoglobinA1c(biometricsDTO.getHemoglobinA1c());
         biometrics.setTotalCholesterol(biometricsDTO.getTotalCholesterol());
@@ -157,25 +549,9 @@ public class PatientService {
         biometrics.setCalcium(biometricsDTO.getCalcium());
         biometrics.setMagnesium(biometricsDTO.getMagnesium());
         biometrics.setPhosphorus(biometricsDTO.getPhosphorus());
-        biometrics.setMeasuredDate(biometricsDTO.getMeasuredDate());
-
-        biometrics = biometricsRepository.save(biometrics);
-        patient.setBiometrics(biometrics);
-        Patient updatedPatient = patientRepository.save(patient);
-
-        return convertToDTO(updatedPatient);
     }
 
-    public PatientDTO updateAnthropometry(Long patientId, AnthropometryDTO anthropometryDTO) {
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
-
-        Anthropometry anthropometry = patient.getAnthropometry();
-        if (anthropometry == null) {
-            anthropometry = new Anthropometry();
-        }
-
-        // Update all fields
+    private void copyAnthropometry(AnthropometryDTO anthropometryDTO, Anthropometry anthropometry) {
         anthropometry.setWeight(anthropometryDTO.getWeight());
         anthropometry.setHeight(anthropometryDTO.getHeight());
         anthropometry.setWaistCircumference(anthropometryDTO.getWaistCircumference());
@@ -190,14 +566,55 @@ public class PatientService {
         anthropometry.setBoneMass(anthropometryDTO.getBoneMass());
         anthropometry.setWaterPercentage(anthropometryDTO.getWaterPercentage());
         anthropometry.setFatPercentage(anthropometryDTO.getFatPercentage());
-        anthropometry.setMeasuredDate(anthropometryDTO.getMeasuredDate());
-        anthropometry.calculateMetrics();
+    }
 
-        anthropometry = anthropometryRepository.save(anthropometry);
-        patient.setAnthropometry(anthropometry);
-        Patient updatedPatient = patientRepository.save(patient);
+    // Mismo orden que BiometricsPanel.ANALYTES
+    private static void copyMeasurement(AnthropometryDTO dto, AnthropometryMeasurement measurement) {
+        measurement.setWeight(dto.getWeight());
+        measurement.setHeight(dto.getHeight());
+        measurement.setWaistCircumference(dto.getWaistCircumference());
+        measurement.setHipCircumference(dto.getHipCircumference());
+        measurement.setArmCircumference(dto.getArmCircumference());
+        measurement.setThighCircumference(dto.getThighCircumference());
+        measurement.setTricepsSkinFold(dto.getTricepsSkinFold());
+        measurement.setBicepsSkinFold(dto.getBicepsSkinFold());
+        measurement.setSubscapularSkinFold(dto.getSubscapularSkinFold());
+        measurement.setSuprailiacSkinFold(dto.getSuprailiacSkinFold());
+        measurement.setMuscleMass(dto.getMuscleMass());
+        measurement.setBoneMass(dto.getBoneMass());
+        measurement.setWaterPercentage(dto.getWaterPercentage());
+        measurement.setFatPercentage(dto.getFatPercentage());
+    }
 
-        return convertToDTO(updatedPatient);
+    private static Double[] toAnalytes(BiometricsDTO dto) {
+        return new Double[] {
+                dto.getGlucose(), dto.getHemoglobinA1c(),
+                dto.getTotalCholesterol(), dto.getLdlCholesterol(), dto.getHdlCholesterol(),
+                dto.getTriglycerides(), dto.getVldlCholesterol(),
+                dto.getAst(), dto.getAlt(), dto.getGgt(), dto.getBilirubin(),
+                dto.getCreatinine(), dto.getBun(),
+                dto.getTotalProteins(), dto.getAlbumin(), dto.getPrealbumin(),
+                dto.getHemoglobin(), dto.getHematocrit(), dto.getWhiteBloodCells(), dto.getPlatelets(),
+                dto.getVitaminB12(), dto.getFolacin(), dto.getIron(), dto.getFerritin(),
+                dto.getZinc(), dto.getCalcium(), dto.getMagnesium(), dto.getPhosphorus()
+        };
+    }
+
+    private BiometricsDTO convertPanelToDTO(BiometricsPanel panel) {
+        Double[] a = panel.getAnalytes();
+        return BiometricsDTO.builder()
+                .id(panel.getId())
+                .glucose(a[0]).hemoglobinA1c(a[1])
+                .totalCholesterol(a[2]).ldlCholesterol(a[3]).hdlCholesterol(a[4])
+                .triglycerides(a[5]).vldlCholesterol(a[6])
+                .ast(a[7]).alt(a[8]).ggt(a[9]).bilirubin(a[10])
+                .creatinine(a[11]).bun(a[12])
+                .totalProteins(a[13]).albumin(a[14]).prealbumin(a[15])
+                .hemoglobin(a[16]).hematocrit(a[17]).whiteBloodCells(a[18]).platelets(a[19])
+                .vitaminB12(a[20]).folacin(a[21]).iron(a[22]).ferritin(a[23])
+                .zinc(a[24]).calcium(a[25]).magnesium(a[26]).phosphorus(a[27])
+                .measuredDate(panel.getMeasuredDate())
+                .build();
     }
 
     private PatientDTO convertToDTO(Patient patient) {
@@ -212,6 +629,7 @@ public class PatientService {
                 .address(patient.getAddress())
                 .occupation(patient.getOccupation())
                 .createdAt(patient.getCreatedAt())
+                .version(patient.getVersion())
                 .clinicalHistory(convertClinicalHistoryToDTO(patient.getClinicalHistory()))
                 .biometrics(convertBiometricsToDTO(patient.getBiometrics()))
                 .anthropometry(convertAnthropometryToDTO(patient.getAnthropometry()))
@@ -0,0 +1,73 @@
+package com.nutricion.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Índice en memoria que recibe cambios incrementales y se reconstruye entero de
+ * vez en cuando (desde la BD) sin perder los cambios que llegan mientras tanto.
+ *
+ * Los cambios recibidos durante la reconstrucción se aplican al índice vigente y
+ * se reaplican sobre el nuevo antes de publicarlo; si la carga falla se sigue
+ * sirviendo el anterior. Las reconstrucciones de un mismo índice no se solapan
+ * (las lanza un único @Scheduled o el arranque).
+ */
+final class RebuildableIndex<T> {
+
+    private final Object swapLock = new Object();
+
+    private volatile T current;
+    // Cambios recibidos mientras se reconstruye; se reaplican sobre el índice nuevo antes de publicarlo
+    private List<Consumer<T>> pendingDuringRebuild;
+
+    RebuildableIndex(T initial) {
+        this.current = initial;
+    }
+
+    T get() {
+        return current;
+    }
+
+    /**
+     * Publica el índice que construye {@code loader} y devuelve el que reemplaza.
+     * Si {@code loader} lanza una excepción se propaga y el índice vigente no cambia.
+     */
+    T rebuild(Supplier<T> loader) {
+        synchronized (swapLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        T fresh;
+        try {
+            fresh = loader.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (swapLock) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (swapLock) {
+            for (Consumer<T> change : pendingDuringRebuild) {
+                change.accept(fresh);
+            }
+            T previous = current;
+            current = fresh;
+            pendingDuringRebuild = null;
+            return previous;
+        }
+    }
+
+    void apply(Consumer<T> change) {
+        synchronized (swapLock) {
+            change.accept(current);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        }
+    }
+
+    void applyAfterCommit(Consumer<T> change) {
+        AfterCommit.run(() -> apply(change));
+    }
+}
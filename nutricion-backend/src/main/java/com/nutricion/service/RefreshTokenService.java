@@ -0,0 +1,113 @@
+package com.nutricion.service;
+
+import com.nutricion.entity.RefreshToken;
+import com.nutricion.entity.User;
+import com.nutricion.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Refresh tokens opacos de un solo uso.
+ *
+ * El token tiene 256 bits aleatorios, así que basta un SHA-256 (sin sal ni BCrypt)
+ * para guardarlo: la búsqueda es por índice único sobre el hash y renovar la
+ * sesión nunca pasa por el PasswordEncoder.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration:30d}")
+    private Duration refreshExpiration;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(Instant.now().plus(refreshExpiration));
+        refreshToken.setRevoked(false);
+        refreshTokenRepository.save(refreshToken);
+        return rawToken;
+    }
+
+    // noRollbackFor: la revocación por reutilización debe persistir aunque se rechace la petición
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        String tokenHash = hash(rawToken);
+        RefreshToken current = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido"));
+        User user = current.getUser();
+
+        if (current.getExpiresAt().isBefore(Instant.now()) || !Boolean.TRUE.equals(user.getActive())) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        // UPDATE condicional en lugar de comprobar la entidad leída: con dos renovaciones simultáneas
+        // del mismo token la segunda espera el bloqueo de fila, no actualiza nada y se trata como reutilización
+        if (refreshTokenRepository.revokeIfActive(tokenHash) == 0) {
+            // Reutilización de un token ya rotado: posible robo, se invalida toda la familia
+            refreshTokenRepository.revokeAllByUser(user);
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+
+        return new Rotation(user, issue(user));
+    }
+
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> token.setRevoked(true));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteAllForUser(User user) {
+        refreshTokenRepository.deleteAllByUser(user);
+    }
+
+    @Scheduled(cron = "${jwt.refresh-cleanup-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.nutricion.service;
+
+import com.nutricion.entity.RevokedToken;
+import com.nutricion.repository.RevokedTokenRepository;
+import com.nutricion.security.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revocación de access tokens por jti.
+ *
+ * Cada petición autenticada consulta primero un filtro de Bloom en memoria; solo
+ * si da positivo (token revocado o falso positivo, ~1%) se confirma contra la
+ * tabla revoked_tokens. Las revocaciones de otros nodos se incorporan de forma
+ * incremental cada {@code app.security.revocation.sync-interval-ms}, y el filtro
+ * se reconstruye periódicamente para descartar los tokens que ya expiraron.
+ */
+@Service
+@Transactional
+public class TokenRevocationService {
+
+    // Margen al leer revocaciones nuevas para no perder filas confirmadas justo durante la sincronización
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${app.security.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    @Value("${app.security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile RebuildableIndex<BloomFilter> filter;
+    private volatile Instant lastSync;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    // Se carga antes de aceptar peticiones; las consultas de lectura no necesitan el proxy transaccional
+    @PostConstruct
+    public void init() {
+        filter = new RebuildableIndex<>(load(Instant.now()));
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        RevokedToken revoked = new RevokedToken();
+        revoked.setJti(jti);
+        revoked.setRevokedAt(Instant.now());
+        revoked.setExpiresAt(expiresAt);
+        revokedTokenRepository.save(revoked);
+        // Hasta el commit isRevoked no encontraría la fila aunque el filtro diera positivo
+        filter.applyAfterCommit(current -> current.put(jti));
+    }
+
+    // Se llama en cada petición autenticada: sin transacción, para que el caso habitual (el filtro
+    // descarta el jti) no pida una conexión al pool; existsByJti abre la suya solo ante un positivo
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.get().mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsByJti(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:10000}")
+    @Transactional(readOnly = true)
+    public void syncRecent() {
+        Instant now = Instant.now();
+        Instant since = lastSync.minus(SYNC_OVERLAP);
+        revokedTokenRepository.findJtisRevokedSince(since, now)
+                .forEach(jti -> filter.apply(current -> current.put(jti)));
+        lastSync = now;
+    }
+
+    // Un filtro de Bloom no admite borrados: se reconstruye solo con los tokens aún vigentes
+    @Scheduled(cron = "${app.security.revocation.rebuild-cron:0 30 * * * *}")
+    public void rebuild() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        // Si la carga falla se sigue usando el filtro anterior
+        filter.rebuild(() -> load(now));
+    }
+
+    private BloomFilter load(Instant now) {
+        BloomFilter fresh = new BloomFilter(expectedTokens, falsePositiveRate);
+        revokedTokenRepository.findActiveJtis(now).forEach(fresh::put);
+        lastSync = now;
+        return fresh;
+    }
+}
@@ -0,0 +1,180 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.TrendPointDTO;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Agregación en una sola pasada de una serie (fecha, valor) ya ordenada por fecha.
+ *
+ * Ninguna implementación guarda la serie completa: los intervalos semanales o
+ * mensuales solo acumulan el intervalo en curso, y LTTB (Largest-Triangle-Three-Buckets)
+ * mantiene dos intervalos a la vez, porque para elegir el punto de uno necesita
+ * la media del siguiente.
+ */
+abstract class TrendAggregator {
+
+    abstract void accept(LocalDate date, double value);
+
+    abstract List<TrendPointDTO> finish();
+
+    static TrendAggregator weekly() {
+        return new Buckets(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    static TrendAggregator monthly() {
+        return new Buckets(TemporalAdjusters.firstDayOfMonth());
+    }
+
+    /**
+     * @param total     número de puntos que llegarán (define el tamaño de cada intervalo)
+     * @param threshold puntos a devolver, incluidos el primero y el último
+     */
+    static TrendAggregator lttb(long total, int threshold) {
+        return new Lttb(total, threshold);
+    }
+
+    private static TrendPointDTO point(LocalDate date, double value) {
+        return TrendPointDTO.builder().date(date).value(value).min(value).max(value).count(1).build();
+    }
+
+    private static final class Buckets extends TrendAggregator {
+        private final TemporalAdjuster bucketStart;
+        private final List<TrendPointDTO> result = new ArrayList<>();
+        private LocalDate start;
+        private double min;
+        private double max;
+        private double sum;
+        private int count;
+
+        private Buckets(TemporalAdjuster bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        void accept(LocalDate date, double value) {
+            LocalDate bucket = date.with(bucketStart);
+            if (!bucket.equals(start)) {
+                flush();
+                start = bucket;
+                min = Double.POSITIVE_INFINITY;
+                max = Double.NEGATIVE_INFINITY;
+                sum = 0;
+                count = 0;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        @Override
+        List<TrendPointDTO> finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+            if (count > 0) {
+                result.add(TrendPointDTO.builder()
+                        .date(start).value(sum / count).min(min).max(max).count(count).build());
+                count = 0;
+            }
+        }
+    }
+
+    private static final class Lttb extends TrendAggregator {
+        private final long total;
+        private final int threshold;
+        private final boolean passThrough;
+        private final List<TrendPointDTO> result = new ArrayList<>();
+        // Puntos como {epochDay, valor}: el eje x del triángulo es la fecha
+        private List<double[]> current = new ArrayList<>();
+        private List<double[]> next = new ArrayList<>();
+        private double[] selected;
+        private int bucket;
+        private long index;
+
+        private Lttb(long total, int threshold) {
+            this.total = total;
+            this.threshold = threshold;
+            this.passThrough = threshold < 3 || total <= threshold;
+        }
+
+        // Primer índice del intervalo j. El intervalo threshold-2 contiene solo el último punto
+        private long start(int j) {
+            return j * (total - 2) / (threshold - 2) + 1;
+        }
+
+        @Override
+        void accept(LocalDate date, double value) {
+            double[] p = {date.toEpochDay(), value};
+            long k = index++;
+            if (passThrough || k == 0) {
+                selected = p;
+                emit(p);
+            } else if (k < start(bucket + 1)) {
+                current.add(p);
+            } else if (k < start(bucket + 2)) {
+                next.add(p);
+            } else {
+                selectFromCurrent();
+                current = next;
+                next = new ArrayList<>();
+                next.add(p);
+                bucket++;
+            }
+        }
+
+        @Override
+        List<TrendPointDTO> finish() {
+            if (!current.isEmpty()) {
+                if (next.isEmpty()) {
+                    // Llegaron menos puntos de los anunciados: el último hace de intervalo siguiente
+                    next.add(current.remove(current.size() - 1));
+                }
+                if (!current.isEmpty()) {
+                    selectFromCurrent();
+                }
+            }
+            if (!next.isEmpty()) {
+                emit(next.get(next.size() - 1));
+            }
+            return result;
+        }
+
+        // Elige el punto de current que forma el triángulo de mayor área con el último elegido y la media de next
+        private void selectFromCurrent() {
+            double avgX = 0;
+            double avgY = 0;
+            for (double[] p : next) {
+                avgX += p[0];
+                avgY += p[1];
+            }
+            avgX /= next.size();
+            avgY /= next.size();
+
+            double[] best = current.get(0);
+            double bestArea = -1;
+            for (double[] p : current) {
+                double area = Math.abs((selected[0] - avgX) * (p[1] - selected[1])
+                        - (selected[0] - p[0]) * (avgY - selected[1]));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = p;
+                }
+            }
+            selected = best;
+            emit(best);
+        }
+
+        private void emit(double[] p) {
+            result.add(point(LocalDate.ofEpochDay((long) p[0]), p[1]));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Migración: índice de la paginación por keyset (GET /api/patients ordenado por apellido)
+--
+-- Ejecutar una sola vez, antes de desplegar la versión con paginación por keyset
+-- (ddl-auto: validate no crea índices). Puede ejecutarse con la aplicación en marcha:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 001_patients_last_name_index.sql
+--
+-- CREATE INDEX CONCURRENTLY no bloquea las escrituras en patients, pero no admite
+-- una transacción explícita: por eso este script no lleva BEGIN/COMMIT. Si se
+-- interrumpe deja un índice INVALID; hay que borrarlo y volver a ejecutarlo.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_last_name_id ON patients (last_name, id);
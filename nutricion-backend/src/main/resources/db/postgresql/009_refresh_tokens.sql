@@ -0,0 +1,25 @@
+-- Migración: refresh tokens de un solo uso (POST /api/auth/refresh)
+--
+-- Ejecutar una sola vez, antes de desplegar la versión con refresh tokens
+-- (ddl-auto: validate) y antes de 013_identity_to_sequences.sql, que pasa el id
+-- de esta tabla a secuencia. Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 009_refresh_tokens.sql
+--
+-- token_hash es el SHA-256 (hex) del token; el índice único sirve la búsqueda de
+-- cada renovación y expires_at la limpieza periódica de tokens caducados.
+
+BEGIN;
+
+CREATE TABLE refresh_tokens (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash varchar(64)                 NOT NULL,
+    user_id    bigint                      NOT NULL REFERENCES users (id),
+    expires_at timestamp(6) with time zone NOT NULL,
+    revoked    boolean                     NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_refresh_tokens_hash ON refresh_tokens (token_hash);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+COMMIT;
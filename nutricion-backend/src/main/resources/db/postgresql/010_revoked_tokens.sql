@@ -0,0 +1,25 @@
+-- Migración: access tokens revocados por jti (POST /api/auth/logout)
+--
+-- Ejecutar una sola vez, antes de desplegar la versión con revocación
+-- (ddl-auto: validate) y antes de 013_identity_to_sequences.sql, que pasa el id
+-- de esta tabla a secuencia. Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 010_revoked_tokens.sql
+--
+-- Cada fila vive hasta que expira el token; revoked_at sirve la sincronización
+-- incremental entre nodos y expires_at la reconstrucción del filtro de Bloom.
+
+BEGIN;
+
+CREATE TABLE revoked_tokens (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    jti        varchar(64)                 NOT NULL,
+    revoked_at timestamp(6) with time zone NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_revoked_tokens_jti ON revoked_tokens (jti);
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+COMMIT;
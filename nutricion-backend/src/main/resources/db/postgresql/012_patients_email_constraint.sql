@@ -0,0 +1,32 @@
+-- Migración: nombre fijo para la restricción única de patients.email
+--
+-- Ejecutar una sola vez, antes de desplegar la versión que informa de los emails
+-- duplicados en la importación por el nombre de la restricción. Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 012_patients_email_constraint.sql
+--
+-- Hibernate generaba un nombre aleatorio (UK_...) y una base creada a mano puede
+-- tener patients_email_key: la restricción existente se renombra a uk_patients_email,
+-- y se crea si no hay ninguna.
+
+BEGIN;
+
+DO $$
+DECLARE
+    existing text;
+BEGIN
+    SELECT c.conname INTO existing
+    FROM pg_constraint c
+    JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attname = 'email'
+    WHERE c.conrelid = 'patients'::regclass
+      AND c.contype = 'u'
+      AND c.conkey = ARRAY[a.attnum];
+
+    IF existing IS NULL THEN
+        ALTER TABLE patients ADD CONSTRAINT uk_patients_email UNIQUE (email);
+    ELSIF existing <> 'uk_patients_email' THEN
+        EXECUTE format('ALTER TABLE patients RENAME CONSTRAINT %I TO uk_patients_email', existing);
+    END IF;
+END $$;
+
+COMMIT;
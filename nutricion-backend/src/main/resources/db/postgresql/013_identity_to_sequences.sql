@@ -0,0 +1,61 @@
+-- Migración: ids IDENTITY -> secuencias con optimizador pooled (allocationSize = 50)
+--
+-- Ejecutar una sola vez sobre la base de producción ANTES de desplegar la versión
+-- que usa secuencias (el perfil prod arranca con ddl-auto: validate y falla si
+-- faltan las secuencias), y después de 009_refresh_tokens.sql y
+-- 010_revoked_tokens.sql, que crean dos de las tablas que convierte. Con la
+-- aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 013_identity_to_sequences.sql
+--
+-- Con el optimizador pooled Hibernate usa los ids (valor - 49 .. valor] para cada
+-- nextval, así que cada secuencia se coloca en MAX(id) + 50: el primer id nuevo
+-- es MAX(id) + 1 y no hay colisiones con las filas existentes.
+
+BEGIN;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+
+ALTER TABLE patients ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE patients ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS patients_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('patients_seq', COALESCE((SELECT MAX(id) FROM patients), 0) + 50, false);
+
+ALTER TABLE clinical_histories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE clinical_histories ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS clinical_histories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('clinical_histories_seq', COALESCE((SELECT MAX(id) FROM clinical_histories), 0) + 50, false);
+
+ALTER TABLE biometrics ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE biometrics ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS biometrics_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('biometrics_seq', COALESCE((SELECT MAX(id) FROM biometrics), 0) + 50, false);
+
+ALTER TABLE anthropometry ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE anthropometry ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS anthropometry_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('anthropometry_seq', COALESCE((SELECT MAX(id) FROM anthropometry), 0) + 50, false);
+
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('refresh_tokens_seq', COALESCE((SELECT MAX(id) FROM refresh_tokens), 0) + 50, false);
+
+ALTER TABLE revoked_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE revoked_tokens ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS revoked_tokens_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('revoked_tokens_seq', COALESCE((SELECT MAX(id) FROM revoked_tokens), 0) + 50, false);
+
+-- Secuencias serial antiguas que quedan huérfanas si las tablas se crearon con bigserial
+DROP SEQUENCE IF EXISTS users_id_seq;
+DROP SEQUENCE IF EXISTS patients_id_seq;
+DROP SEQUENCE IF EXISTS clinical_histories_id_seq;
+DROP SEQUENCE IF EXISTS biometrics_id_seq;
+DROP SEQUENCE IF EXISTS anthropometry_id_seq;
+DROP SEQUENCE IF EXISTS refresh_tokens_id_seq;
+DROP SEQUENCE IF EXISTS revoked_tokens_id_seq;
+
+COMMIT;
@@ -0,0 +1,93 @@
+-- Migración: historial de paneles de laboratorio (biometrics_panels)
+--
+-- Ejecutar una sola vez, después de 013_identity_to_sequences.sql y antes de
+-- desplegar la versión con historial (ddl-auto: validate). Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 014_biometrics_panels.sql
+--
+-- Cada fila actual de biometrics se copia como primer panel del paciente. Formato
+-- de panel_values: los analitos presentes como float8 big-endian (float8send), en
+-- el orden de BiometricsPanel.ANALYTES; el bit i de presence_mask marca el analito i.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS biometrics_panels_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE biometrics_panels (
+    id            bigint                   NOT NULL PRIMARY KEY,
+    patient_id    bigint                   NOT NULL REFERENCES patients (id) ON DELETE CASCADE,
+    measured_date date                     NOT NULL,
+    recorded_at   timestamp(6) with time zone NOT NULL,
+    presence_mask integer                  NOT NULL,
+    panel_values  bytea                    NOT NULL
+);
+
+CREATE INDEX idx_biometrics_panels_patient_date ON biometrics_panels (patient_id, measured_date);
+
+INSERT INTO biometrics_panels (id, patient_id, measured_date, recorded_at, presence_mask, panel_values)
+SELECT row_number() OVER (ORDER BY p.id),
+       p.id,
+       COALESCE(b.measured_date, p.created_at),
+       now(),
+       (CASE WHEN b.glucose IS NOT NULL THEN 1 ELSE 0 END) |
+       (CASE WHEN b.hemoglobin_a1c IS NOT NULL THEN 2 ELSE 0 END) |
+       (CASE WHEN b.total_cholesterol IS NOT NULL THEN 4 ELSE 0 END) |
+       (CASE WHEN b.ldl_cholesterol IS NOT NULL THEN 8 ELSE 0 END) |
+       (CASE WHEN b.hdl_cholesterol IS NOT NULL THEN 16 ELSE 0 END) |
+       (CASE WHEN b.triglycerides IS NOT NULL THEN 32 ELSE 0 END) |
+       (CASE WHEN b.vldl_cholesterol IS NOT NULL THEN 64 ELSE 0 END) |
+       (CASE WHEN b.ast IS NOT NULL THEN 128 ELSE 0 END) |
+       (CASE WHEN b.alt IS NOT NULL THEN 256 ELSE 0 END) |
+       (CASE WHEN b.ggt IS NOT NULL THEN 512 ELSE 0 END) |
+       (CASE WHEN b.bilirubin IS NOT NULL THEN 1024 ELSE 0 END) |
+       (CASE WHEN b.creatinine IS NOT NULL THEN 2048 ELSE 0 END) |
+       (CASE WHEN b.bun IS NOT NULL THEN 4096 ELSE 0 END) |
+       (CASE WHEN b.total_proteins IS NOT NULL THEN 8192 ELSE 0 END) |
+       (CASE WHEN b.albumin IS NOT NULL THEN 16384 ELSE 0 END) |
+       (CASE WHEN b.prealbumin IS NOT NULL THEN 32768 ELSE 0 END) |
+       (CASE WHEN b.hemoglobin IS NOT NULL THEN 65536 ELSE 0 END) |
+       (CASE WHEN b.hematocrit IS NOT NULL THEN 131072 ELSE 0 END) |
+       (CASE WHEN b.white_blood_cells IS NOT NULL THEN 262144 ELSE 0 END) |
+       (CASE WHEN b.platelets IS NOT NULL THEN 524288 ELSE 0 END) |
+       (CASE WHEN b.vitamin_b12 IS NOT NULL THEN 1048576 ELSE 0 END) |
+       (CASE WHEN b.folacin IS NOT NULL THEN 2097152 ELSE 0 END) |
+       (CASE WHEN b.iron IS NOT NULL THEN 4194304 ELSE 0 END) |
+       (CASE WHEN b.ferritin IS NOT NULL THEN 8388608 ELSE 0 END) |
+       (CASE WHEN b.zinc IS NOT NULL THEN 16777216 ELSE 0 END) |
+       (CASE WHEN b.calcium IS NOT NULL THEN 33554432 ELSE 0 END) |
+       (CASE WHEN b.magnesium IS NOT NULL THEN 67108864 ELSE 0 END) |
+       (CASE WHEN b.phosphorus IS NOT NULL THEN 134217728 ELSE 0 END),
+       COALESCE(float8send(b.glucose), ''::bytea) ||
+       COALESCE(float8send(b.hemoglobin_a1c), ''::bytea) ||
+       COALESCE(float8send(b.total_cholesterol), ''::bytea) ||
+       COALESCE(float8send(b.ldl_cholesterol), ''::bytea) ||
+       COALESCE(float8send(b.hdl_cholesterol), ''::bytea) ||
+       COALESCE(float8send(b.triglycerides), ''::bytea) ||
+       COALESCE(float8send(b.vldl_cholesterol), ''::bytea) ||
+       COALESCE(float8send(b.ast), ''::bytea) ||
+       COALESCE(float8send(b.alt), ''::bytea) ||
+       COALESCE(float8send(b.ggt), ''::bytea) ||
+       COALESCE(float8send(b.bilirubin), ''::bytea) ||
+       COALESCE(float8send(b.creatinine), ''::bytea) ||
+       COALESCE(float8send(b.bun), ''::bytea) ||
+       COALESCE(float8send(b.total_proteins), ''::bytea) ||
+       COALESCE(float8send(b.albumin), ''::bytea) ||
+       COALESCE(float8send(b.prealbumin), ''::bytea) ||
+       COALESCE(float8send(b.hemoglobin), ''::bytea) ||
+       COALESCE(float8send(b.hematocrit), ''::bytea) ||
+       COALESCE(float8send(b.white_blood_cells), ''::bytea) ||
+       COALESCE(float8send(b.platelets), ''::bytea) ||
+       COALESCE(float8send(b.vitamin_b12), ''::bytea) ||
+       COALESCE(float8send(b.folacin), ''::bytea) ||
+       COALESCE(float8send(b.iron), ''::bytea) ||
+       COALESCE(float8send(b.ferritin), ''::bytea) ||
+       COALESCE(float8send(b.zinc), ''::bytea) ||
+       COALESCE(float8send(b.calcium), ''::bytea) ||
+       COALESCE(float8send(b.magnesium), ''::bytea) ||
+       COALESCE(float8send(b.phosphorus), ''::bytea)
+FROM patients p
+JOIN biometrics b ON b.id = p.biometrics_id;
+
+SELECT setval('biometrics_panels_seq', COALESCE((SELECT MAX(id) FROM biometrics_panels), 0) + 50, false);
+
+COMMIT;
@@ -0,0 +1,48 @@
+-- Migración: historial de mediciones antropométricas (anthropometry_measurements)
+--
+-- Ejecutar una sola vez, después de 014_biometrics_panels.sql y antes de desplegar
+-- la versión con tendencias (ddl-auto: validate). Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 015_anthropometry_measurements.sql
+--
+-- Cada fila actual de anthropometry se copia como primera medición del paciente.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS anthropometry_measurements_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE anthropometry_measurements (
+    id                    bigint NOT NULL PRIMARY KEY,
+    patient_id            bigint NOT NULL REFERENCES patients (id) ON DELETE CASCADE,
+    measured_date         date NOT NULL,
+    recorded_at           timestamp(6) with time zone NOT NULL,
+    weight                double precision,
+    height                double precision,
+    bmi                   double precision,
+    waist_circumference   double precision,
+    hip_circumference     double precision,
+    waist_hip_ratio       double precision,
+    arm_circumference     double precision,
+    thigh_circumference   double precision,
+    triceps_skin_fold     double precision,
+    biceps_skin_fold      double precision,
+    subscapular_skin_fold double precision,
+    suprailiac_skin_fold  double precision,
+    muscle_mass           double precision,
+    bone_mass             double precision,
+    water_percentage      double precision,
+    fat_percentage        double precision
+);
+
+CREATE INDEX idx_anthropometry_measurements_patient_date
+    ON anthropometry_measurements (patient_id, measured_date);
+
+INSERT INTO anthropometry_measurements (id, patient_id, measured_date, recorded_at, weight, height, bmi, waist_circumference, hip_circumference, waist_hip_ratio, arm_circumference, thigh_circumference, triceps_skin_fold, biceps_skin_fold, subscapular_skin_fold, suprailiac_skin_fold, muscle_mass, bone_mass, water_percentage, fat_percentage)
+SELECT row_number() OVER (ORDER BY p.id), p.id, COALESCE(a.measured_date, p.created_at), now(), a.weight, a.height, a.bmi, a.waist_circumference, a.hip_circumference, a.waist_hip_ratio, a.arm_circumference, a.thigh_circumference, a.triceps_skin_fold, a.biceps_skin_fold, a.subscapular_skin_fold, a.suprailiac_skin_fold, a.muscle_mass, a.bone_mass, a.water_percentage, a.fat_percentage
+FROM patients p
+JOIN anthropometry a ON a.id = p.anthropometry_id;
+
+SELECT setval('anthropometry_measurements_seq',
+              COALESCE((SELECT MAX(id) FROM anthropometry_measurements), 0) + 50, false);
+
+COMMIT;
@@ -0,0 +1,15 @@
+-- Migración: versión del perfil del paciente (ETag de GET /api/patients/{id})
+--
+-- Ejecutar una sola vez, después de 015_anthropometry_measurements.sql y antes de
+-- desplegar la versión con ETag (ddl-auto: validate). Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 016_patient_version.sql
+--
+-- Los pacientes existentes empiezan en la versión 0.
+
+BEGIN;
+
+ALTER TABLE patients ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE patients ALTER COLUMN version DROP DEFAULT;
+
+COMMIT;
@@ -0,0 +1,24 @@
+-- Migración: columna de versión en las secciones del paciente
+--
+-- Con @DynamicUpdate, Hibernate invalida en la caché de segundo nivel una entidad sin versión
+-- cada vez que la actualiza; con versión reemplaza la entrada al confirmar.
+--
+-- Ejecutar una sola vez, después de 016_patient_version.sql y antes de desplegar
+-- (ddl-auto: validate). Con la aplicación detenida:
+--
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f 017_section_versions.sql
+--
+-- Las filas existentes empiezan en la versión 0.
+
+BEGIN;
+
+ALTER TABLE clinical_histories ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE clinical_histories ALTER COLUMN version DROP DEFAULT;
+
+ALTER TABLE biometrics ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE biometrics ALTER COLUMN version DROP DEFAULT;
+
+ALTER TABLE anthropometry ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE anthropometry ALTER COLUMN version DROP DEFAULT;
+
+COMMIT;
@@ -0,0 +1,69 @@
+package com.nutricion;
+
+import com.nutricion.dto.PatientDTO;
+import com.nutricion.entity.User;
+import com.nutricion.repository.UserRepository;
+import com.nutricion.security.JwtTokenProvider;
+import com.nutricion.service.AuthService;
+import com.nutricion.service.PatientService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base de los tests con la aplicación completa. El perfil "test"
+ * (src/test/resources/application-test.yml) fija el secreto JWT y el admin por
+ * defecto; aquí están las ayudas para autenticarse como ese admin y crear pacientes.
+ *
+ * Las subclases pueden declarar su propio @SpringBootTest (puerto, propiedades); el
+ * perfil se hereda igualmente.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class IntegrationTestSupport {
+
+    // Los de application-test.yml
+    public static final String ADMIN_EMAIL = "admin@nutricion.test";
+    public static final String ADMIN_PASSWORD = "admin-test";
+
+    // Los tests comparten la BD en memoria: cada paciente lleva un email distinto
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected AuthService authService;
+
+    @Autowired
+    protected PatientService patientService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected JwtTokenProvider jwtTokenProvider;
+
+    // Crea el admin por defecto si aún no existe
+    protected User admin() {
+        authService.initializeDefaultAdmin();
+        return userRepository.findByEmail(ADMIN_EMAIL).orElseThrow();
+    }
+
+    protected String adminBearer() {
+        return "Bearer " + jwtTokenProvider.generateToken(admin());
+    }
+
+    // Paciente sin secciones salvo el historial vacío que crea el alta
+    protected Long createPatient(String lastName) {
+        return patientService.createPatient(PatientDTO.builder()
+                .firstName("Paciente")
+                .lastName(lastName)
+                .email("paciente-" + SEQUENCE.incrementAndGet() + "@example.com")
+                .phone("0999000000")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender("F")
+                .address("Loja")
+                .build()).getId();
+    }
+}
@@ -0,0 +1,21 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Configuración de la aplicación: ids por secuencia pooled y lotes JDBC de 50.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*BulkInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=50")
+class BatchedBulkInsertBenchmark extends BulkInsertBenchmarkSupport {
+
+    @Test
+    void batched() throws Exception {
+        runBenchmark("lotes de 50");
+    }
+}
@@ -0,0 +1,181 @@
+package com.nutricion.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.ClinicalHistoryDTO;
+import com.nutricion.dto.PatientDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tamaño y tiempo de codificación/decodificación de PatientDTO en JSON, CBOR y
+ * Smile, con la configuración de los convertidores de BinaryEncodingConfig: un
+ * perfil completo (GET /api/patients/{id}) y una lista de 50 perfiles.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=BinaryEncodingBenchmark
+ */
+@Tag("benchmark")
+class BinaryEncodingBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+    private static final int ROUNDS = 7;
+    private static final int PAGE = 50;
+    private static final TypeReference<List<PatientDTO>> PATIENT_LIST = new TypeReference<>() {
+    };
+
+    private interface Codec {
+        Object run(int i) throws Exception;
+    }
+
+    @Test
+    void compare() throws Exception {
+        ObjectMapper json = mapper(null);
+        ObjectMapper cbor = mapper(new CBORFactory());
+        ObjectMapper smile = mapper(new SmileFactory());
+
+        Random random = new Random(42);
+        PatientDTO patient = patient(random, 1);
+        List<PatientDTO> page = new ArrayList<>();
+        for (int i = 0; i < PAGE; i++) {
+            page.add(patient(random, i + 1));
+        }
+
+        System.out.println("============================================================");
+        System.out.printf("  CODIFICACIÓN DE PatientDTO  (mediana de %d pasadas de %d perfiles)%n", ROUNDS, ITERATIONS);
+        System.out.println("------------------------------------------------------------");
+        System.out.println("  Perfil completo        bytes   codificar ns  decodificar ns");
+        report("JSON", json, patient, null);
+        report("CBOR", cbor, patient, null);
+        report("Smile", smile, patient, null);
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("  Lista de %d perfiles   bytes   codificar ns  decodificar ns%n", PAGE);
+        report("JSON", json, page, PATIENT_LIST);
+        report("CBOR", cbor, page, PATIENT_LIST);
+        report("Smile", smile, page, PATIENT_LIST);
+        System.out.println("============================================================");
+    }
+
+    // Mismos ajustes que el Jackson2ObjectMapperBuilder de Spring Boot: fechas como texto ISO
+    private static ObjectMapper mapper(JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (factory != null) {
+            builder.factory(factory);
+        }
+        return builder.build();
+    }
+
+    private void report(String name, ObjectMapper mapper, Object value, TypeReference<?> type) throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        Object decoded = type == null ? mapper.readValue(encoded, PatientDTO.class) : mapper.readValue(encoded, type);
+        assertEquals(value, decoded);
+
+        // Misma cantidad de perfiles por pasada en ambos casos
+        int iterations = type == null ? ITERATIONS : ITERATIONS / PAGE;
+        long encode = measure(iterations, i -> mapper.writeValueAsBytes(value));
+        long decode = measure(iterations, i -> type == null
+                ? mapper.readValue(encoded, PatientDTO.class)
+                : mapper.readValue(encoded, type));
+        System.out.printf("  %-20s %7d   %12d  %14d%n", name, encoded.length, encode, decode);
+    }
+
+    // Mediana de ROUNDS pasadas tras una de calentamiento, en ns por operación
+    private long measure(int iterations, Codec codec) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < iterations; i++) {
+            sink = codec.run(i);
+        }
+        long[] nanos = new long[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink = codec.run(i);
+            }
+            nanos[r] = (System.nanoTime() - start) / iterations;
+        }
+        if (sink == null) {
+            throw new IllegalStateException();
+        }
+        Arrays.sort(nanos);
+        return nanos[ROUNDS / 2];
+    }
+
+    // Valores con la precisión con que llegan del laboratorio (1-2 decimales), no doubles aleatorios
+    private static PatientDTO patient(Random random, long id) {
+        LocalDate measured = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365));
+        double weight = round(50 + random.nextDouble() * 50, 1);
+        double height = round(1.5 + random.nextDouble() * 0.4, 2);
+        double waist = round(70 + random.nextDouble() * 40, 1);
+        double hip = round(85 + random.nextDouble() * 30, 1);
+        return PatientDTO.builder()
+                .id(id)
+                .firstName("María José")
+                .lastName("Sarango Muñoz")
+                .email("paciente" + id + "@example.com")
+                .phone("0999000000")
+                .dateOfBirth(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(20_000)))
+                .gender(id % 2 == 0 ? "M" : "F")
+                .address("Av. Universitaria y 10 de Agosto, Loja")
+                .occupation("Docente")
+                .createdAt(LocalDate.of(2024, 6, 1))
+                .version((long) random.nextInt(20))
+                .clinicalHistory(ClinicalHistoryDTO.builder()
+                        .id(id)
+                        .medicalHistory("Hipertensión arterial en control, dislipidemia desde 2019")
+                        .familyHistory("Padre con diabetes tipo 2")
+                        .complaint("Aumento de peso en el último año")
+                        .dietaryHabits("Tres comidas al día, consumo frecuente de pan y gaseosas")
+                        .physicalActivity("Caminata 2 veces por semana")
+                        .currentMedications("Losartán 50 mg, atorvastatina 20 mg")
+                        .allergies(id % 3 == 0 ? "Penicilina" : null)
+                        .nutritionalGoal("Reducir 5 kg en 6 meses")
+                        .notes("Control mensual")
+                        .build())
+                .biometrics(BiometricsDTO.builder()
+                        .id(id)
+                        .glucose(round(70 + random.nextDouble() * 60, 0))
+                        .hemoglobinA1c(round(4.5 + random.nextDouble() * 3, 1))
+                        .totalCholesterol(round(150 + random.nextDouble() * 100, 0))
+                        .ldlCholesterol(round(70 + random.nextDouble() * 90, 0))
+                        .hdlCholesterol(round(35 + random.nextDouble() * 40, 0))
+                        .triglycerides(round(80 + random.nextDouble() * 150, 0))
+                        .creatinine(round(0.6 + random.nextDouble(), 2))
+                        .hemoglobin(round(11 + random.nextDouble() * 6, 1))
+                        .hematocrit(round(35 + random.nextDouble() * 15, 1))
+                        .measuredDate(measured)
+                        .build())
+                .anthropometry(AnthropometryDTO.builder()
+                        .id(id)
+                        .weight(weight)
+                        .height(height)
+                        .bmi(round(weight / (height * height), 2))
+                        .waistCircumference(waist)
+                        .hipCircumference(hip)
+                        .waistHipRatio(round(waist / hip, 2))
+                        .fatPercentage(round(15 + random.nextDouble() * 25, 1))
+                        .measuredDate(measured)
+                        .build())
+                .build();
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+}
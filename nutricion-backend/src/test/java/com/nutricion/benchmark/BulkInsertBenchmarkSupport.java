@@ -0,0 +1,76 @@
+package com.nutricion.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.PatientImportReportDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Importa {@link #ROWS} pacientes (paciente + historial clínico) con
+ * POST /api/patients/import, a través de MockMvc para que intervenga también el
+ * EntityManager de open-session-in-view, y mide filas por segundo. Las subclases
+ * solo cambian hibernate.jdbc.batch_size.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.import.max-rows=100000",
+        "logging.level.root=WARN"
+})
+abstract class BulkInsertBenchmarkSupport extends IntegrationTestSupport {
+
+    private static final int ROWS = 20_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    void runBenchmark(String mode) throws Exception {
+        String bearer = adminBearer();
+        // Calentamiento: JIT y bloques de las secuencias
+        importCsv(bearer, csv("warmup", ROWS / 10));
+
+        long bestMs = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            PatientImportReportDTO report = importCsv(bearer, csv("round" + round, ROWS));
+            assertEquals(ROWS, report.getImported());
+            bestMs = Math.min(bestMs, report.getDurationMs());
+        }
+
+        System.out.println("============================================================");
+        System.out.printf("  INSERCION MASIVA %-12s (%d filas, mejor de %d)%n", mode, ROWS, ROUNDS);
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("  Tiempo        : %d ms%n", bestMs);
+        System.out.printf("  Throughput    : %.0f filas/s%n", ROWS * 1000.0 / Math.max(bestMs, 1));
+        System.out.println("============================================================");
+    }
+
+    private PatientImportReportDTO importCsv(String bearer, String csv) throws Exception {
+        String body = mockMvc.perform(post("/api/patients/import")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, PatientImportReportDTO.class);
+    }
+
+    private static String csv(String tag, int rows) {
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,phone,dateOfBirth,gender,address\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Ana,Torres").append(i).append(',')
+                    .append(tag).append('-').append(i).append("@example.com,0999000000,1990-01-01,F,Loja\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Configuración de la aplicación: caché de segundo nivel activa.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*PatientReadBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class CachedPatientReadBenchmark extends PatientReadBenchmarkSupport {
+
+    @Test
+    void cached() {
+        runBenchmark("con caché");
+    }
+}
@@ -0,0 +1,164 @@
+package com.nutricion.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.entity.Anthropometry;
+import com.nutricion.entity.Biometrics;
+import com.nutricion.entity.ClinicalHistory;
+import com.nutricion.entity.Patient;
+import com.nutricion.service.PatientJsonWriter;
+import com.nutricion.service.PatientService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Bytes asignados y tiempo por paciente al serializar perfiles completos en memoria
+ * (sin BD): PatientDTO + ObjectMapper, como antes, frente a PatientJsonWriter.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=PatientJsonWriterBenchmark
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = "logging.level.root=WARN")
+class PatientJsonWriterBenchmark extends IntegrationTestSupport {
+
+    private static final int PATIENTS = 10_000;
+    private static final int ROUNDS = 10;
+
+    private interface Serializer {
+        void write(JsonGenerator generator, Patient patient) throws Exception;
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compare() throws Exception {
+        Patient[] patients = patients();
+        // La conversión a DTO es privada: se invoca por reflexión, con un coste fijo mínimo por llamada
+        Object target = AopTestUtils.getTargetObject(patientService);
+        Method convertToDTO = ReflectionUtils.findMethod(PatientService.class, "convertToDTO", Patient.class);
+        ReflectionUtils.makeAccessible(convertToDTO);
+
+        Serializer dto = (generator, patient) -> objectMapper.writeValue(generator, convertToDTO.invoke(target, patient));
+        Serializer direct = PatientJsonWriter::write;
+
+        ByteArrayOutputStream viaDto = new ByteArrayOutputStream();
+        ByteArrayOutputStream viaWriter = new ByteArrayOutputStream();
+        run(dto, patients, viaDto);
+        run(direct, patients, viaWriter);
+        assertArrayEquals(viaDto.toByteArray(), viaWriter.toByteArray());
+
+        long[] dtoResult = measure(dto, patients);
+        long[] directResult = measure(direct, patients);
+
+        System.out.println("============================================================");
+        System.out.printf("  SERIALIZACIÓN DE PACIENTES  (%d perfiles completos, %d KB)%n",
+                PATIENTS, viaDto.size() / 1024);
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("  PatientDTO + ObjectMapper : %6d bytes/paciente  %6d ns/paciente%n",
+                dtoResult[0], dtoResult[1]);
+        System.out.printf("  PatientJsonWriter         : %6d bytes/paciente  %6d ns/paciente%n",
+                directResult[0], directResult[1]);
+        System.out.println("============================================================");
+    }
+
+    // Mediana de ROUNDS pasadas tras el calentamiento: {bytes asignados, ns} por paciente
+    private long[] measure(Serializer serializer, Patient[] patients) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ROUNDS; i++) {
+            run(serializer, patients, OutputStream.nullOutputStream());
+        }
+        long[] bytes = new long[ROUNDS];
+        long[] nanos = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            run(serializer, patients, OutputStream.nullOutputStream());
+            nanos[i] = (System.nanoTime() - start) / patients.length;
+            bytes[i] = (threads.getCurrentThreadAllocatedBytes() - allocated) / patients.length;
+        }
+        Arrays.sort(bytes);
+        Arrays.sort(nanos);
+        return new long[] {bytes[ROUNDS / 2], nanos[ROUNDS / 2]};
+    }
+
+    private void run(Serializer serializer, Patient[] patients, OutputStream out) throws Exception {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            for (Patient patient : patients) {
+                serializer.write(generator, patient);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Patient[] patients() {
+        Random random = new Random(42);
+        Patient[] patients = new Patient[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            ClinicalHistory history = new ClinicalHistory();
+            history.setId((long) i);
+            history.setMedicalHistory("Hipertensión arterial en control, dislipidemia desde 2019");
+            history.setCurrentMedications("Losartán 50 mg, atorvastatina 20 mg");
+            history.setAllergies(i % 3 == 0 ? "Penicilina" : null);
+            history.setNutritionalGoal("Reducir 5 kg en 6 meses");
+            history.setNotes("Control mensual");
+
+            Biometrics biometrics = new Biometrics();
+            biometrics.setId((long) i);
+            biometrics.setGlucose(70 + random.nextDouble() * 60);
+            biometrics.setHemoglobinA1c(4.5 + random.nextDouble() * 3);
+            biometrics.setTotalCholesterol(150 + random.nextDouble() * 100);
+            biometrics.setLdlCholesterol(70 + random.nextDouble() * 90);
+            biometrics.setHdlCholesterol(35 + random.nextDouble() * 40);
+            biometrics.setTriglycerides(80 + random.nextDouble() * 150);
+            biometrics.setHemoglobin(11 + random.nextDouble() * 6);
+            biometrics.setCreatinine(0.6 + random.nextDouble());
+            biometrics.setMeasuredDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+
+            Anthropometry anthropometry = new Anthropometry();
+            anthropometry.setId((long) i);
+            anthropometry.setWeight(50 + random.nextDouble() * 50);
+            anthropometry.setHeight(1.5 + random.nextDouble() * 0.4);
+            anthropometry.setWaistCircumference(70 + random.nextDouble() * 40);
+            anthropometry.setHipCircumference(85 + random.nextDouble() * 30);
+            anthropometry.setMeasuredDate(biometrics.getMeasuredDate());
+            anthropometry.calculateMetrics();
+
+            Patient patient = new Patient();
+            patient.setId((long) i);
+            patient.setFirstName("María José");
+            patient.setLastName("Sarango Muñoz");
+            patient.setEmail("paciente" + i + "@example.com");
+            patient.setPhone("0999000000");
+            patient.setDateOfBirth(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(20_000)));
+            patient.setGender(i % 2 == 0 ? "F" : "M");
+            patient.setAddress("Av. Universitaria y 10 de Agosto, Loja");
+            patient.setOccupation("Docente");
+            patient.setCreatedAt(LocalDate.of(2024, 6, 1));
+            patient.setVersion((long) random.nextInt(20));
+            patient.setClinicalHistory(history);
+            patient.setBiometrics(biometrics);
+            patient.setAnthropometry(anthropometry);
+            patients[i] = patient;
+        }
+        return patients;
+    }
+}
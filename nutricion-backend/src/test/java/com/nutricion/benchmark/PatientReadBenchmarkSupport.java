@@ -0,0 +1,57 @@
+package com.nutricion.benchmark;
+
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.ClinicalHistoryDTO;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Lee perfiles completos (paciente + historial + biometría + antropometría) por el
+ * mismo camino que GET /api/patients/{id} y mide la latencia por lectura. Las
+ * subclases solo activan o desactivan la caché de segundo nivel.
+ */
+@TestPropertySource(properties = "logging.level.root=WARN")
+abstract class PatientReadBenchmarkSupport extends IntegrationTestSupport {
+
+    private static final int PATIENTS = 1_000;
+    private static final int READS = 50_000;
+
+    void runBenchmark(String mode) {
+        long[] ids = new long[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            ids[i] = createPatient("Torres" + i);
+            patientService.updateClinicalHistory(ids[i], ClinicalHistoryDTO.builder()
+                    .allergies("Penicilina").currentMedications("Metformina").build());
+            patientService.updateBiometrics(ids[i], BiometricsDTO.builder().glucose(92.0).build());
+            patientService.updateAnthropometry(ids[i], AnthropometryDTO.builder().weight(68.0).height(1.65).build());
+        }
+
+        Random random = new Random(42);
+        // Calentamiento: JIT y, con caché, primera carga de cada paciente
+        for (int i = 0; i < READS; i++) {
+            patientService.getPatientById(ids[random.nextInt(PATIENTS)]);
+        }
+
+        long[] nanos = new long[READS];
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            long t0 = System.nanoTime();
+            patientService.getPatientById(ids[random.nextInt(PATIENTS)]);
+            nanos[i] = System.nanoTime() - t0;
+        }
+        long totalMs = (System.nanoTime() - start) / 1_000_000;
+        Arrays.sort(nanos);
+
+        System.out.println("============================================================");
+        System.out.printf("  LECTURA DE PACIENTE %-12s (%d lecturas, %d pacientes)%n", mode, READS, PATIENTS);
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("  p50           : %.1f us%n", nanos[READS / 2] / 1e3);
+        System.out.printf("  p99           : %.1f us%n", nanos[READS * 99 / 100] / 1e3);
+        System.out.printf("  Throughput    : %.0f lecturas/s%n", READS * 1000.0 / Math.max(totalMs, 1));
+        System.out.println("============================================================");
+    }
+}
@@ -0,0 +1,22 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Línea base: pool de hilos de plataforma de Tomcat (200 por defecto).
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*ThroughputBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadThroughputBenchmark extends ThroughputBenchmarkSupport {
+
+    @Test
+    void platformThreads() throws Exception {
+        runBenchmark("plataforma");
+    }
+}
@@ -0,0 +1,108 @@
+package com.nutricion.benchmark;
+
+import com.nutricion.IntegrationTestSupport;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga HTTP real contra la aplicación levantada en un puerto aleatorio:
+ * {@link #CLIENTS} clientes concurrentes piden GET /api/patients/{id} en bucle.
+ * Las subclases fijan el modo de hilos con las propiedades de @SpringBootTest.
+ */
+@TestPropertySource(properties = "logging.level.root=WARN")
+abstract class ThroughputBenchmarkSupport extends IntegrationTestSupport {
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    @LocalServerPort
+    private int port;
+
+    void runBenchmark(String mode) throws Exception {
+        String bearer = adminBearer();
+        Long patientId = createPatient("Benchmark");
+        URI uri = URI.create("http://localhost:" + port + "/api/patients/" + patientId);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(clients)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Authorization", bearer)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+
+            // Calentamiento: JIT, pool de conexiones y cachés
+            run(clients, http, request, CLIENTS / 10, REQUESTS_PER_CLIENT);
+
+            long start = System.nanoTime();
+            Result result = run(clients, http, request, CLIENTS, REQUESTS_PER_CLIENT);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = result.latenciesMicros();
+            Arrays.sort(latencies);
+            System.out.println("============================================================");
+            System.out.printf("  THROUGHPUT %-10s (%d clientes concurrentes)%n", mode, CLIENTS);
+            System.out.println("------------------------------------------------------------");
+            System.out.printf("  Peticiones    : %d (%d errores)%n", latencies.length, result.errors());
+            System.out.printf("  Throughput    : %.0f req/s%n", latencies.length / seconds);
+            System.out.printf("  Latencia p50  : %.1f ms%n", percentile(latencies, 0.50) / 1000.0);
+            System.out.printf("  Latencia p99  : %.1f ms%n", percentile(latencies, 0.99) / 1000.0);
+            System.out.println("============================================================");
+        }
+    }
+
+    private record Result(long[] latenciesMicros, int errors) {
+    }
+
+    private Result run(ExecutorService clients, HttpClient http, HttpRequest request,
+                       int clientCount, int requestsPerClient) throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> futures = new ArrayList<>(clientCount);
+        for (int c = 0; c < clientCount; c++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[requestsPerClient];
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = (System.nanoTime() - t0) / 1000;
+                }
+                return latencies;
+            }));
+        }
+        long[] all = new long[clientCount * requestsPerClient];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        return new Result(all, errors.get());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,63 @@
+package com.nutricion.benchmark;
+
+import com.nutricion.search.TrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Latencia de búsqueda del índice de trigramas con 100.000 pacientes sintéticos.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=TrigramSearchBenchmark
+ */
+@Tag("benchmark")
+class TrigramSearchBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final int SEARCHES = 20_000;
+    private static final String[] FIRST_NAMES = {
+            "José", "María", "Ana", "Luis", "Carlos", "Lucía", "Andrés", "Sofía", "Jorge", "Valeria",
+            "Diego", "Camila", "Pedro", "Gabriela", "Juan", "Daniela", "Miguel", "Paula", "Fernando", "Elena"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sarango", "Muñoz", "Pérez", "González", "Rodríguez", "Jaramillo", "Cueva", "Ordóñez", "Torres",
+            "Vega", "Castillo", "Benítez", "Ramírez", "Zambrano", "Armijos", "Córdova", "Herrera", "Loaiza"
+    };
+    private static final String[] QUERIES = {
+            "j", "ma", "san", "muñ", "gonza", "jose per", "rodri", "cueva ana", "sofia", "ordonez",
+            "zam", "lucia torres", "hern", "@example", "armi", "vale", "cord", "benit", "ramirez d", "xyz"
+    };
+
+    @Test
+    void search() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex(1.0, 1.0, 0.5);
+        long start = System.nanoTime();
+        for (int i = 0; i < PATIENTS; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = TrigramIndex.normalize(first + "." + last.replace(' ', '.')) + i + "@example.com";
+            index.put(i + 1, first, last, email);
+        }
+        System.out.printf("Índice: %d pacientes en %d ms%n", index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        // Calentamiento del JIT
+        for (int i = 0; i < SEARCHES; i++) {
+            index.search(QUERIES[i % QUERIES.length], 10);
+        }
+
+        long[] nanos = new long[SEARCHES];
+        for (int i = 0; i < SEARCHES; i++) {
+            long t0 = System.nanoTime();
+            index.search(QUERIES[random.nextInt(QUERIES.length)], 10);
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Búsqueda top-10: p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                nanos[SEARCHES / 2] / 1e6, nanos[SEARCHES * 99 / 100] / 1e6, nanos[SEARCHES - 1] / 1e6);
+    }
+}
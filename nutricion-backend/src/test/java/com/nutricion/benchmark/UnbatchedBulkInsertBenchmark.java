@@ -0,0 +1,21 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Línea base: un INSERT por fila y viaje a la BD, como ocurría con GenerationType.IDENTITY.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*BulkInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=1")
+class UnbatchedBulkInsertBenchmark extends BulkInsertBenchmarkSupport {
+
+    @Test
+    void unbatched() throws Exception {
+        runBenchmark("sin lotes");
+    }
+}
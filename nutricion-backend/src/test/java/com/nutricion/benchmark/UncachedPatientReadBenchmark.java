@@ -0,0 +1,21 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Línea base: sin caché de segundo nivel, cada lectura es una consulta con el grafo de secciones.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*PatientReadBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=false")
+class UncachedPatientReadBenchmark extends PatientReadBenchmarkSupport {
+
+    @Test
+    void uncached() {
+        runBenchmark("sin caché");
+    }
+}
@@ -0,0 +1,22 @@
+package com.nutricion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Modo hilos virtuales con el limitador de concurrencia JDBC y el monitor de anclajes activos.
+ *
+ * Ejecutar con:
+ *   mvn test -Pbenchmark -Dtest=*ThroughputBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadThroughputBenchmark extends ThroughputBenchmarkSupport {
+
+    @Test
+    void virtualThreads() throws Exception {
+        runBenchmark("virtuales");
+    }
+}
@@ -0,0 +1,109 @@
+package com.nutricion.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.entity.User;
+import com.nutricion.repository.RefreshTokenRepository;
+import com.nutricion.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Instant;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rotación de refresh tokens: cada token sirve una sola vez y presentar uno ya
+ * usado invalida todos los del usuario. Los rechazos responden 401. Tras el
+ * logout el access token deja de autenticar.
+ */
+@AutoConfigureMockMvc
+class AuthControllerTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = admin();
+    }
+
+    @Test
+    void rotatedTokenCannotBeReused() throws Exception {
+        String first = refreshTokenService.issue(admin);
+        String second = refreshedToken(refresh(first).andExpect(status().isOk()));
+
+        refresh(first).andExpect(status().isUnauthorized());
+        // La reutilización revocó toda la familia, también el token recién emitido
+        refresh(second).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void reuseRevokesEveryTokenOfTheUser() throws Exception {
+        String used = refreshTokenService.issue(admin);
+        String otherSession = refreshTokenService.issue(admin);
+        refresh(used).andExpect(status().isOk());
+
+        refresh(used).andExpect(status().isUnauthorized());
+
+        refresh(otherSession).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        String token = refreshTokenService.issue(admin);
+        refreshTokenRepository.findAll().stream()
+                .filter(t -> t.getUser().getId().equals(admin.getId()))
+                .forEach(t -> {
+                    t.setExpiresAt(Instant.now().minusSeconds(1));
+                    refreshTokenRepository.save(t);
+                });
+
+        refresh(token).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unknownTokenIsRejected() throws Exception {
+        refresh("no-existe").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loggedOutAccessTokenIsRejected() throws Exception {
+        String bearer = "Bearer " + jwtTokenProvider.generateToken(admin);
+        mockMvc.perform(get("/api/patients").header("Authorization", bearer)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", bearer))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/patients").header("Authorization", bearer)).andExpect(status().isForbidden());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private String refreshedToken(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString())
+                .get("refreshToken").asText();
+    }
+}
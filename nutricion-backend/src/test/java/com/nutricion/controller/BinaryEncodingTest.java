@@ -0,0 +1,141 @@
+package com.nutricion.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.LoginRequest;
+import com.nutricion.dto.LoginResponse;
+import com.nutricion.dto.PatientDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Negociación de JSON, CBOR y Smile con Accept: las codificaciones binarias deben
+ * llevar exactamente los mismos datos que JSON y JSON sigue siendo el valor por defecto.
+ */
+@AutoConfigureMockMvc
+class BinaryEncodingTest extends IntegrationTestSupport {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = adminBearer();
+    }
+
+    @Test
+    void patientIsNegotiatedWithSameContentAsJson() throws Exception {
+        Long id = createPatientWithBiometrics("negociado");
+        PatientDTO expected = patientService.getPatientById(id);
+        ObjectMapper cbor = builder.factory(new CBORFactory()).build();
+        ObjectMapper smile = builder.factory(new SmileFactory()).build();
+
+        MvcResult json = mockMvc.perform(get("/api/patients/{id}", id).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(
+                MediaType.parseMediaType(json.getResponse().getContentType())));
+        assertTrue(json.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertEquals(expected, objectMapper.readValue(json.getResponse().getContentAsByteArray(), PatientDTO.class));
+
+        byte[] cborBody = fetch(id, CBOR);
+        byte[] smileBody = fetch(id, SMILE);
+        assertEquals(expected, cbor.readValue(cborBody, PatientDTO.class));
+        assertEquals(expected, smile.readValue(smileBody, PatientDTO.class));
+        // Las fechas se codifican como en JSON (texto ISO), no como arrays
+        assertEquals("1990-01-01", cbor.readTree(cborBody).get("dateOfBirth").asText());
+        assertTrue(cborBody.length < json.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void eachFormatHasItsOwnEtag() throws Exception {
+        Long id = createPatientWithBiometrics("etag");
+        long version = patientService.getPatientVersion(id);
+
+        String json = etag(id, MediaType.APPLICATION_JSON);
+        String cbor = etag(id, CBOR);
+        assertEquals("\"" + version + "\"", json);
+        assertEquals("\"" + version + "-cbor\"", cbor);
+        assertEquals("\"" + version + "-smile\"", etag(id, SMILE));
+
+        // El ETag de JSON no valida la copia en CBOR: son bytes distintos
+        mockMvc.perform(get("/api/patients/{id}", id).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/patients/{id}", id).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void loginAcceptsAndReturnsCbor() throws Exception {
+        ObjectMapper cbor = builder.factory(new CBORFactory()).build();
+        byte[] request = cbor.writeValueAsBytes(LoginRequest.builder()
+                .email(ADMIN_EMAIL).password(ADMIN_PASSWORD).build());
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login").contentType(CBOR).accept(CBOR).content(request))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(CBOR.isCompatibleWith(MediaType.parseMediaType(result.getResponse().getContentType())));
+        LoginResponse response = cbor.readValue(result.getResponse().getContentAsByteArray(), LoginResponse.class);
+        assertFalse(response.getToken().isEmpty());
+    }
+
+    private byte[] fetch(Long id, MediaType mediaType) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/patients/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(mediaType.isCompatibleWith(MediaType.parseMediaType(result.getResponse().getContentType())));
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    private String etag(Long id, MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/patients/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private Long createPatientWithBiometrics(String tag) {
+        Long id = createPatient(tag);
+        patientService.updateBiometrics(id, BiometricsDTO.builder()
+                .glucose(92.5)
+                .totalCholesterol(185.0)
+                .measuredDate(LocalDate.of(2024, 5, 10))
+                .build());
+        return id;
+    }
+}
@@ -0,0 +1,418 @@
+package com.nutricion.controller;
+
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.ClinicalHistoryDTO;
+import com.nutricion.entity.User;
+import com.nutricion.security.UserStatusCache;
+import com.nutricion.service.RefreshTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.SingleQueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL por endpoint.
+ *
+ * El DataSource de H2 se envuelve con datasource-proxy y cada test mide los
+ * SELECT / INSERT / UPDATE / DELETE que ejecuta una sola petición HTTP (filtro
+ * JWT incluido). Si un cambio añade consultas a un endpoint, el build falla.
+ * Para bajar un presupuesto basta con editar {@link #BUDGETS}; para subirlo hay
+ * que justificarlo en la revisión.
+ */
+@AutoConfigureMockMvc
+class EndpointQueryBudgetTest extends IntegrationTestSupport {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    // Contador global (no por hilo) para incluir el trabajo de las respuestas asíncronas en streaming
+    private static final SingleQueryCountHolder COUNTS = new SingleQueryCountHolder();
+    // nextval de las secuencias, que datasource-proxy cuenta como SELECT
+    private static final AtomicInteger SEQUENCE_CALLS = new AtomicInteger();
+
+    private record Budget(int select, int insert, int update, int delete) {
+    }
+
+    // Máximos por petición: select, insert, update, delete.
+    // Los nextval de las secuencias no cuentan como SELECT: el optimizador pooled ejecuta uno cada
+    // 50 ids (allocationSize), así que depende de cuántas filas insertaron los tests anteriores
+    // y no del endpoint. Se acotan aparte con MAX_SEQUENCE_CALLS
+    private static final Map<String, Budget> BUDGETS = Map.ofEntries(
+            Map.entry("POST /api/auth/login", new Budget(2, 1, 0, 0)),
+            Map.entry("POST /api/auth/refresh", new Budget(1, 1, 1, 0)),
+            Map.entry("POST /api/auth/logout", new Budget(1, 1, 1, 0)),
+            Map.entry("POST /api/patients", new Budget(0, 2, 0, 0)),
+            // 10 filas: un lote JDBC de INSERT para historiales y otro para pacientes
+            Map.entry("POST /api/patients/import", new Budget(1, 2, 0, 0)),
+            Map.entry("GET /api/patients", new Budget(1, 0, 0, 0)),
+            Map.entry("GET /api/patients?fields", new Budget(1, 0, 0, 0)),
+            Map.entry("GET /api/patients/export", new Budget(1, 0, 0, 0)),
+            // Se resuelve contra el índice en memoria
+            Map.entry("GET /api/patients/search", new Budget(0, 0, 0, 0)),
+            Map.entry("GET /api/patients/history/search", new Budget(0, 0, 0, 0)),
+            Map.entry("GET /api/patients/{id}", new Budget(1, 0, 0, 0)),
+            // Fuera de ambas cachés: la versión llega con la misma consulta que los datos
+            Map.entry("GET /api/patients/{id} cold", new Budget(1, 0, 0, 0)),
+            // 304: solo la versión, sin secciones
+            Map.entry("GET /api/patients/{id} If-None-Match", new Budget(1, 0, 0, 0)),
+            // Segunda lectura: versión desde la caché de segundo nivel y respuesta desde PatientResponseCache
+            Map.entry("GET /api/patients/{id} cached", new Budget(0, 0, 0, 0)),
+            // Versión para el ETag y proyección
+            Map.entry("GET /api/patients/{id}?fields", new Budget(2, 0, 0, 0)),
+            Map.entry("PUT /api/patients/{id}", new Budget(1, 0, 1, 0)),
+            Map.entry("DELETE /api/patients/{id}", new Budget(3, 0, 0, 2)),
+            // Los cambios de sección incluyen un UPDATE de la versión del paciente
+            Map.entry("PUT /api/patients/{id}/history", new Budget(1, 0, 2, 0)),
+            Map.entry("PUT /api/patients/{id}/biometrics", new Budget(1, 2, 2, 0)),
+            // PATCH con view=section: paciente y sección, UPDATE solo de lo enviado y de la versión;
+            // biometría y antropometría corrigen además su última entrada del historial
+            Map.entry("PATCH /api/patients/{id}/history", new Budget(2, 0, 2, 0)),
+            Map.entry("PATCH /api/patients/{id}/biometrics", new Budget(3, 0, 3, 0)),
+            Map.entry("PATCH /api/patients/{id}/anthropometry", new Budget(3, 0, 3, 0)),
+            Map.entry("GET /api/patients/{id}/biometrics/history", new Budget(1, 0, 0, 0)),
+            Map.entry("PUT /api/patients/{id}/anthropometry", new Budget(1, 2, 2, 0)),
+            Map.entry("GET /api/patients/{id}/anthropometry/trend", new Budget(1, 0, 0, 0))
+    );
+
+    // Ninguna petición inserta en más de dos tablas (paciente e historial, o sección y su
+    // historial de mediciones): como mucho un nextval por cada una
+    private static final int MAX_SEQUENCE_CALLS = 2;
+
+    @TestConfiguration
+    static class QueryCountConfig {
+        @Bean
+        static BeanPostProcessor dataSourceProxyPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("budget")
+                                .countQuery(COUNTS)
+                                .listener(new SequenceCallCounter())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class SequenceCallCounter implements QueryExecutionListener {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo query : queryInfoList) {
+                String sql = query.getQuery().toLowerCase(Locale.ROOT);
+                // H2: next value for <secuencia>; PostgreSQL: nextval('<secuencia>')
+                if (sql.contains("next value for") || sql.contains("nextval(")) {
+                    SEQUENCE_CALLS.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = adminBearer();
+        // Se mide el estado estable: la caché de estado de usuario ya contiene al admin
+        userStatusCache.get(ADMIN_EMAIL);
+    }
+
+    @Test
+    void login() throws Exception {
+        assertWithinBudget("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + ADMIN_PASSWORD + "\"}"));
+    }
+
+    @Test
+    void refresh() throws Exception {
+        User admin = admin();
+        String refreshToken = refreshTokenService.issue(admin);
+        assertWithinBudget("POST /api/auth/refresh", post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    @Test
+    void logout() throws Exception {
+        User admin = admin();
+        String refreshToken = refreshTokenService.issue(admin);
+        assertWithinBudget("POST /api/auth/logout", post("/api/auth/logout")
+                .header("Authorization", "Bearer " + jwtTokenProvider.generateToken(admin))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    @Test
+    void createPatient() throws Exception {
+        int n = SEQUENCE.incrementAndGet();
+        assertWithinBudget("POST /api/patients", post("/api/patients")
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Ana\",\"lastName\":\"Torres\",\"email\":\"budget-new" + n
+                        + "@example.com\",\"phone\":\"0999\",\"dateOfBirth\":\"1990-01-01\","
+                        + "\"gender\":\"F\",\"address\":\"Loja\"}"));
+    }
+
+    @Test
+    void importPatients() throws Exception {
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,phone,dateOfBirth,gender,address\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("Ana,Torres,budget-import").append(SEQUENCE.incrementAndGet())
+                    .append("@example.com,0999,1990-01-01,F,\"Loja, Ecuador\"\n");
+        }
+        assertWithinBudget("POST /api/patients/import", post("/api/patients/import")
+                .header("Authorization", bearer)
+                .contentType("text/csv")
+                .content(csv.toString()));
+    }
+
+    @Test
+    void listPatients() throws Exception {
+        createPatient("lista");
+        createPatient("lista");
+        assertWithinBudget("GET /api/patients", get("/api/patients").header("Authorization", bearer));
+    }
+
+    @Test
+    void listPatientsFields() throws Exception {
+        createPatient("list-fields");
+        assertWithinBudget("GET /api/patients?fields", get("/api/patients")
+                .param("fields", "firstName,lastName,email,phone,createdAt")
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void exportPatients() throws Exception {
+        createPatient("export");
+        createPatient("export");
+        assertWithinBudget("GET /api/patients/export", get("/api/patients/export").header("Authorization", bearer));
+    }
+
+    @Test
+    void searchPatients() throws Exception {
+        createPatient("búsqueda");
+        assertWithinBudget("GET /api/patients/search", get("/api/patients/search")
+                .param("q", "busque")
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void searchClinicalHistories() throws Exception {
+        Long id = createPatient("clinica");
+        patientService.updateClinicalHistory(id, ClinicalHistoryDTO.builder()
+                .allergies("Alergia a la penicilina").build());
+        assertWithinBudget("GET /api/patients/history/search", get("/api/patients/history/search")
+                .param("q", "penicilina")
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void getPatient() throws Exception {
+        Long id = createPatient("detalle");
+        assertWithinBudget("GET /api/patients/{id}", get("/api/patients/{id}", id).header("Authorization", bearer));
+    }
+
+    @Test
+    void getPatientCold() throws Exception {
+        Long id = createPatient("frio");
+        entityManagerFactory.getCache().evictAll();
+        assertWithinBudget("GET /api/patients/{id} cold", get("/api/patients/{id}", id).header("Authorization", bearer));
+    }
+
+    @Test
+    void getPatientFields() throws Exception {
+        Long id = createPatient("fields");
+        assertWithinBudget("GET /api/patients/{id}?fields", get("/api/patients/{id}", id)
+                .param("fields", "firstName,lastName,biometrics")
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void getPatientNotModified() throws Exception {
+        Long id = createPatient("etag");
+        String etag = "\"" + patientService.getPatientVersion(id) + "\"";
+        assertWithinBudget("GET /api/patients/{id} If-None-Match", get("/api/patients/{id}", id)
+                .header("Authorization", bearer)
+                .header("If-None-Match", etag));
+    }
+
+    @Test
+    void getPatientCached() throws Exception {
+        Long id = createPatient("repetido");
+        mockMvc.perform(get("/api/patients/{id}", id).header("Authorization", bearer))
+                .andExpect(status().isOk());
+        assertWithinBudget("GET /api/patients/{id} cached", get("/api/patients/{id}", id)
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void updatePatient() throws Exception {
+        Long id = createPatient("update");
+        assertWithinBudget("PUT /api/patients/{id}", put("/api/patients/{id}", id)
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Ana María\",\"lastName\":\"Torres\",\"phone\":\"0998\","
+                        + "\"dateOfBirth\":\"1990-01-01\",\"gender\":\"F\",\"address\":\"Quito\"}"));
+    }
+
+    @Test
+    void deletePatient() throws Exception {
+        Long id = createPatient("delete");
+        assertWithinBudget("DELETE /api/patients/{id}", delete("/api/patients/{id}", id)
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void updateClinicalHistory() throws Exception {
+        Long id = createPatient("history");
+        assertWithinBudget("PUT /api/patients/{id}/history", put("/api/patients/{id}/history", id)
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"allergies\":\"Penicilina\",\"notes\":\"Control mensual\"}"));
+    }
+
+    @Test
+    void updateBiometrics() throws Exception {
+        Long id = createPatient("biometrics");
+        assertWithinBudget("PUT /api/patients/{id}/biometrics", put("/api/patients/{id}/biometrics", id)
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"glucose\":92.5,\"hemoglobinA1c\":5.4}"));
+    }
+
+    @Test
+    void patchClinicalHistory() throws Exception {
+        Long id = createPatient("patch-history");
+        assertWithinBudget("PATCH /api/patients/{id}/history", patch("/api/patients/{id}/history", id)
+                .param("view", "section")
+                .header("Authorization", bearer)
+                .contentType("application/merge-patch+json")
+                .content("{\"allergies\":\"Lactosa\"}"));
+    }
+
+    @Test
+    void patchBiometrics() throws Exception {
+        Long id = createPatient("patch-lab");
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(95.0).ldlCholesterol(120.0).build());
+        assertWithinBudget("PATCH /api/patients/{id}/biometrics", patch("/api/patients/{id}/biometrics", id)
+                .param("view", "section")
+                .header("Authorization", bearer)
+                .contentType("application/merge-patch+json")
+                .content("{\"glucose\":101.0}"));
+    }
+
+    @Test
+    void patchAnthropometry() throws Exception {
+        Long id = createPatient("patch-anthro");
+        patientService.updateAnthropometry(id, AnthropometryDTO.builder().weight(70.0).height(1.70).build());
+        assertWithinBudget("PATCH /api/patients/{id}/anthropometry", patch("/api/patients/{id}/anthropometry", id)
+                .param("view", "section")
+                .header("Authorization", bearer)
+                .contentType("application/merge-patch+json")
+                .content("{\"weight\":69.0}"));
+    }
+
+    @Test
+    void biometricsHistory() throws Exception {
+        Long id = createPatient("history-lab");
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(95.0).build());
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(99.0).build());
+        assertWithinBudget("GET /api/patients/{id}/biometrics/history",
+                get("/api/patients/{id}/biometrics/history", id).header("Authorization", bearer));
+    }
+
+    @Test
+    void updateAnthropometry() throws Exception {
+        Long id = createPatient("anthropometry");
+        assertWithinBudget("PUT /api/patients/{id}/anthropometry", put("/api/patients/{id}/anthropometry", id)
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"weight\":68.0,\"height\":1.65,\"waistCircumference\":80.0}"));
+    }
+
+    @Test
+    void anthropometryTrend() throws Exception {
+        Long id = createPatient("trend");
+        for (int month = 1; month <= 6; month++) {
+            patientService.updateAnthropometry(id, AnthropometryDTO.builder()
+                    .weight(80.0 - month).height(1.70).measuredDate(LocalDate.of(2024, month, 15)).build());
+        }
+        assertWithinBudget("GET /api/patients/{id}/anthropometry/trend",
+                get("/api/patients/{id}/anthropometry/trend", id)
+                        .param("metric", "bmi")
+                        .param("mode", "month")
+                        .header("Authorization", bearer));
+    }
+
+    private void assertWithinBudget(String endpoint, RequestBuilder request) throws Exception {
+        Budget budget = BUDGETS.get(endpoint);
+        COUNTS.clear();
+        SEQUENCE_CALLS.set(0);
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful());
+        } else {
+            assertTrue(result.getResponse().getStatus() < 300 || result.getResponse().getStatus() == 304,
+                    endpoint + " respondió " + result.getResponse().getStatus());
+        }
+
+        QueryCount count = COUNTS.getOrCreateQueryCount("budget");
+        int sequenceCalls = SEQUENCE_CALLS.get();
+        long select = count.getSelect() - sequenceCalls;
+        String actual = String.format("select=%d insert=%d update=%d delete=%d nextval=%d",
+                select, count.getInsert(), count.getUpdate(), count.getDelete(), sequenceCalls);
+        assertTrue(select <= budget.select()
+                        && sequenceCalls <= MAX_SEQUENCE_CALLS
+                        && count.getInsert() <= budget.insert()
+                        && count.getUpdate() <= budget.update()
+                        && count.getDelete() <= budget.delete(),
+                endpoint + " excede su presupuesto " + budget + ": " + actual);
+    }
+}
@@ -0,0 +1,105 @@
+package com.nutricion.controller;
+
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lecturas y escrituras de un paciente a través del controlador: tras un cambio no
+ * se sirve la respuesta guardada de la versión anterior, y una escritura que se
+ * cruza con otra responde 409, no 500.
+ */
+@AutoConfigureMockMvc
+class PatientControllerTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = adminBearer();
+    }
+
+    @Test
+    void readAfterUpdateIsNotServedStale() throws Exception {
+        Long id = createPatient("lectura");
+        MvcResult first = getPatient(id);
+        String firstEtag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        // La segunda lectura sale de PatientResponseCache
+        assertEquals(firstEtag, getPatient(id).getResponse().getHeader(HttpHeaders.ETAG));
+
+        MvcResult updated = mockMvc.perform(put("/api/patients/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Renombrado\",\"lastName\":\"Controlador\",\"phone\":\"0999\","
+                                + "\"dateOfBirth\":\"1990-01-01\",\"gender\":\"F\",\"address\":\"Loja\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String updatedEtag = updated.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult after = mockMvc.perform(get("/api/patients/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, firstEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Renombrado"))
+                .andReturn();
+        assertNotEquals(firstEtag, updatedEtag);
+        assertEquals(updatedEtag, after.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void concurrentSectionWriteAnswersConflict() {
+        Long id = createPatient("concurrente");
+
+        // La petición se une a esta transacción, que ya leyó el paciente antes de que otra
+        // escritura confirmase: su incremento de versión encuentra una versión distinta
+        transactionTemplate.executeWithoutResult(tx -> {
+            patientRepository.findById(id).orElseThrow();
+            CompletableFuture.runAsync(() ->
+                    patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(95.0).build())).join();
+            try {
+                mockMvc.perform(put("/api/patients/{id}/biometrics", id)
+                                .header(HttpHeaders.AUTHORIZATION, bearer)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"glucose\":110.0}"))
+                        .andExpect(status().isConflict());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            tx.setRollbackOnly();
+        });
+    }
+
+    private MvcResult getPatient(Long id) throws Exception {
+        return mockMvc.perform(get("/api/patients/{id}", id).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Paciente"))
+                .andReturn();
+    }
+}
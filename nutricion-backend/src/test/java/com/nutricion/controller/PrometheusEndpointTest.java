@@ -0,0 +1,58 @@
+package com.nutricion.controller;
+
+import com.nutricion.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Métricas expuestas en /actuator/prometheus: latencia por endpoint, BCrypt, JWT,
+ * Hibernate y Hikari. En el puerto de la API el scrape sigue exigiendo rol ADMIN.
+ */
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exposesApplicationMetricsToAdmins() throws Exception {
+        String bearer = adminBearer();
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + ADMIN_PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/patients").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> expected = List.of(
+                "http_server_requests_seconds_bucket{application=\"nutricion-backend\",error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/patients\"",
+                "http_server_requests_seconds_count{application=\"nutricion-backend\",error=\"none\",exception=\"none\",method=\"POST\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/auth/login\"",
+                "auth_password_hash_seconds_bucket{application=\"nutricion-backend\",operation=\"matches\"",
+                "auth_jwt_parse_seconds_bucket{application=\"nutricion-backend\",result=\"valid\"",
+                "hibernate_query_executions_total",
+                "hibernate_flushes_total",
+                "hibernate_second_level_cache_requests_total",
+                "hikaricp_connections_pending",
+                "hikaricp_connections_acquire_seconds_bucket");
+        for (String metric : expected) {
+            assertTrue(scrape.contains(metric), "Falta en /actuator/prometheus: " + metric);
+        }
+    }
+}
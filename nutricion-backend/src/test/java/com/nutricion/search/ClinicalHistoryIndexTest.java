@@ -0,0 +1,81 @@
+package com.nutricion.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClinicalHistoryIndexTest {
+
+    private final ClinicalHistoryIndex index = new ClinicalHistoryIndex();
+
+    @AfterEach
+    void close() {
+        index.close();
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).hits().stream().map(ClinicalHistoryIndex.Hit::patientId).sorted().toList();
+    }
+
+    // allergies, currentMedications, medicalHistory, foodIntolerances, notes
+    private void seed() {
+        index.put(1, "Alergia a la PENICILINA", "Metformina 850 mg", "Diabetes tipo 2", null, null);
+        index.put(2, null, "Omeprazol", "Gastritis crónica", "Intolerancia a la lactosa", "Dieta sin gluten");
+        index.put(3, "Alergias estacionales", null, "Hipertensión", "Lactosa", "Control de gluten mensual");
+    }
+
+    @Test
+    void ignoresAccentsCaseAndPlurals() {
+        seed();
+
+        assertEquals(List.of(1L), ids("penicilina"));
+        assertEquals(List.of(2L), ids("gastritis cronica"));
+        assertEquals(List.of(1L, 3L), ids("alergias"));
+        assertEquals(List.of(3L), ids("HIPERTENSION"));
+    }
+
+    @Test
+    void supportsBooleanPhraseAndFieldQueries() {
+        seed();
+
+        assertEquals(List.of(2L, 3L), ids("lactosa"));
+        assertEquals(List.of(2L), ids("lactosa AND omeprazol"));
+        assertEquals(List.of(1L, 2L), ids("metformina OR omeprazol"));
+        assertEquals(List.of(3L), ids("lactosa -omeprazol"));
+        assertEquals(List.of(2L), ids("\"sin gluten\""));
+        assertEquals(List.of(1L, 3L), ids("allergies:alergia"));
+        assertEquals(List.of(3L), ids("notes:gluten -notes:\"sin gluten\""));
+    }
+
+    @Test
+    void returnsHighlightsPerField() {
+        seed();
+
+        ClinicalHistoryIndex.Result result = index.search("penicilina", 10);
+
+        assertEquals(1, result.total());
+        assertEquals("Alergia a la <mark>PENICILINA</mark>", result.hits().get(0).highlights().get("allergies"));
+        assertEquals(1, result.hits().get(0).highlights().size());
+    }
+
+    @Test
+    void updatesAndRemovesAreVisibleToNextSearch() {
+        seed();
+
+        index.put(1, "Ninguna", null, null, null, null);
+        assertTrue(ids("penicilina").isEmpty());
+
+        index.remove(2);
+        assertEquals(List.of(3L), ids("lactosa"));
+    }
+
+    @Test
+    void rejectsInvalidSyntax() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("\"sin cerrar", 10));
+    }
+}
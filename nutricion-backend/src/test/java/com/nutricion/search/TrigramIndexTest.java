@@ -0,0 +1,63 @@
+package com.nutricion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static List<Long> ids(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::id).toList();
+    }
+
+    @Test
+    void matchesSubstringsIgnoringCaseAndAccents() {
+        TrigramIndex index = new TrigramIndex(1.0, 1.0, 0.5);
+        index.put(1, "José", "Muñoz", "jose.munoz@example.com");
+        index.put(2, "María", "Pérez", "maria@example.com");
+
+        assertEquals(List.of(1L), ids(index.search("MUNO", 10)));
+        assertEquals(List.of(2L), ids(index.search("perez", 10)));
+        assertEquals(List.of(1L), ids(index.search("jose munoz", 10)));
+        assertTrue(index.search("gonzalez", 10).isEmpty());
+    }
+
+    @Test
+    void shortTermsOnlyMatchWordStarts() {
+        TrigramIndex index = new TrigramIndex(1.0, 1.0, 0.5);
+        index.put(1, "Ana", "Torres", "ana@example.com");
+        index.put(2, "Juliana", "Vega", "jv@example.com");
+
+        assertEquals(List.of(1L), ids(index.search("an", 10)));
+        assertEquals(List.of(1L), ids(index.search("t", 10)));
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        TrigramIndex index = new TrigramIndex(1.0, 1.0, 0.5);
+        index.put(1, "Carlos", "Ruiz", "carlos@example.com");
+        index.put(1, "Carla", "Ruiz", "carla@example.com");
+
+        assertTrue(index.search("carlos", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("carla", 10)));
+
+        index.remove(1);
+        assertTrue(index.search("ruiz", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void exactAndPrefixMatchesRankFirstAndLimitApplies() {
+        TrigramIndex index = new TrigramIndex(1.0, 1.0, 0.5);
+        index.put(1, "Marisol", "Leon", "m1@example.com");
+        index.put(2, "Ana", "Sol", "m2@example.com");
+        index.put(3, "Solange", "Ortiz", "m3@example.com");
+
+        List<TrigramIndex.Hit> hits = index.search("sol", 2);
+
+        assertEquals(List.of(2L, 3L), ids(hits));
+    }
+}
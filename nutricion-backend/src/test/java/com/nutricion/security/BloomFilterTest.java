@@ -0,0 +1,34 @@
+package com.nutricion.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void hasNoFalseNegativesAndBoundedFalsePositives() {
+        int inserted = 10_000;
+        BloomFilter filter = new BloomFilter(inserted, 0.01);
+        String[] jtis = new String[inserted];
+        for (int i = 0; i < inserted; i++) {
+            jtis[i] = UUID.randomUUID().toString();
+            filter.put(jtis[i]);
+        }
+        for (String jti : jtis) {
+            assertTrue(filter.mightContain(jti));
+        }
+
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // Objetivo 1%; se deja margen para la variación aleatoria
+        assertTrue(falsePositives < probes * 0.02, "falsos positivos: " + falsePositives);
+    }
+}
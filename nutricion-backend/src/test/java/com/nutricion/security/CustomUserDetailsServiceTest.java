@@ -0,0 +1,68 @@
+package com.nutricion.security;
+
+import com.nutricion.entity.User;
+import com.nutricion.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un login correcto con un hash de fuerza menor que la vigente lo vuelve a
+ * generar con la fuerza actual, con el mismo cableado que SecurityConfig.
+ */
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(userRepository);
+
+    @Test
+    void rehashesWeakerHashOnSuccessfulLogin() {
+        User user = user(new BCryptPasswordEncoder(4).encode("secreto"));
+
+        provider(5).authenticate(new UsernamePasswordAuthenticationToken("ana@example.com", "secreto"));
+
+        verify(userRepository).save(user);
+        assertTrue(user.getPassword().startsWith("$2a$05$"), user.getPassword());
+        assertTrue(new BCryptPasswordEncoder(5).matches("secreto", user.getPassword()));
+    }
+
+    @Test
+    void keepsHashWithCurrentStrength() {
+        String hash = new BCryptPasswordEncoder(5).encode("secreto");
+        User user = user(hash);
+
+        provider(5).authenticate(new UsernamePasswordAuthenticationToken("ana@example.com", "secreto"));
+
+        verify(userRepository, never()).save(any());
+        assertEquals(hash, user.getPassword());
+    }
+
+    private User user(String hash) {
+        User user = User.builder()
+                .email("ana@example.com").password(hash).firstName("Ana").lastName("Torres")
+                .role("NUTRITIONIST").active(true)
+                .build();
+        when(userRepository.findByEmail("ana@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        return user;
+    }
+
+    private DaoAuthenticationProvider provider(int strength) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(service);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(strength));
+        provider.setUserDetailsPasswordService(service);
+        return provider;
+    }
+}
@@ -0,0 +1,135 @@
+package com.nutricion.security;
+
+import com.nutricion.config.JwtAuthenticationFilter;
+import com.nutricion.entity.User;
+import com.nutricion.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * La caché de tokens verificados evita repetir el HMAC, pero nunca devuelve un
+ * token caducado ni deja pasar uno revocado o manipulado.
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final User user = User.builder()
+            .email("ana@example.com").firstName("Ana").lastName("Torres").role("NUTRITIONIST").active(true)
+            .build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cacheHitSkipsVerification() {
+        JwtTokenProvider provider = provider(900_000);
+        String token = provider.generateToken(user);
+
+        Claims first = provider.parseClaims(token);
+        Claims second = provider.parseClaims(token);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, parses("valid"));
+        assertEquals(1, parses("cached"));
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromCache() throws InterruptedException {
+        // exp se guarda en segundos: con 1 s de vigencia el token caduca como mucho 1 s después
+        JwtTokenProvider provider = provider(1_000);
+        String token = provider.generateToken(user);
+        assertNotNull(provider.parseClaims(token));
+
+        Thread.sleep(1_100);
+
+        assertNull(provider.parseClaims(token));
+        assertEquals(0, parses("cached"));
+        assertEquals(1, parses("invalid"));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        JwtTokenProvider provider = provider(900_000);
+        String token = provider.generateToken(user);
+        assertNotNull(provider.parseClaims(token));
+
+        // Mismo token con el rol cambiado en el payload y la firma original
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("NUTRITIONIST", "ADMIN");
+        String tampered = parts[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+
+        assertNull(provider.parseClaims(tampered));
+        assertNull(provider.parseClaims(token.substring(0, token.length() - 2)));
+        assertEquals(2, parses("invalid"));
+    }
+
+    @Test
+    void revokedTokenIsRejectedEvenWhenCached() throws Exception {
+        JwtTokenProvider provider = provider(900_000);
+        String token = provider.generateToken(user);
+        String jti = provider.parseClaims(token).getId();
+        TokenRevocationService revocation = mock(TokenRevocationService.class);
+        UserStatusCache statusCache = mock(UserStatusCache.class);
+        when(statusCache.get(user.getEmail()))
+                .thenReturn(Optional.of(new UserStatusCache.UserStatus(true, "NUTRITIONIST")));
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+                provider, mock(UserDetailsService.class), statusCache, revocation);
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+
+        authenticate(filter, token);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        when(revocation.isRevoked(jti)).thenReturn(true);
+        authenticate(filter, token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(2, parses("cached"));
+    }
+
+    private JwtTokenProvider provider(long expirationMs) {
+        JwtTokenProvider provider = new JwtTokenProvider(registry);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", 100L);
+        provider.validateSecretEntropy();
+        return provider;
+    }
+
+    private long parses(String result) {
+        return registry.get("auth.jwt.parse").tag("result", result).timer().count();
+    }
+
+    private static void authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
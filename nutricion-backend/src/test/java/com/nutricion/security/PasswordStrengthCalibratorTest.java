@@ -0,0 +1,29 @@
+package com.nutricion.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * La fuerza calibrada queda siempre entre el mínimo y el máximo configurados.
+ */
+class PasswordStrengthCalibratorTest {
+
+    @Test
+    void staysWithinConfiguredBounds() {
+        // Objetivo inalcanzable por abajo: se queda en el mínimo
+        assertEquals(4, PasswordStrengthCalibrator.calibrate(Duration.ZERO, 4, 6));
+        // Objetivo holgado: sube hasta el máximo y no más
+        assertEquals(6, PasswordStrengthCalibrator.calibrate(Duration.ofMinutes(1), 4, 6));
+        assertEquals(5, PasswordStrengthCalibrator.calibrate(Duration.ofMinutes(1), 5, 5));
+    }
+
+    @Test
+    void rejectsMinAboveMax() {
+        assertThrows(IllegalStateException.class,
+                () -> PasswordStrengthCalibrator.calibrate(Duration.ofMillis(300), 12, 10));
+    }
+}
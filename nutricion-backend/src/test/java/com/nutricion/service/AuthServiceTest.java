@@ -0,0 +1,60 @@
+package com.nutricion.service;
+
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.entity.User;
+import com.nutricion.security.UserStatusCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La caché de estado de usuario se invalida al confirmar: una petición que lee
+ * mientras la desactivación aún no ha confirmado no deja el estado anterior en caché,
+ * y un alta no queda oculta tras un "no existe" cacheado antes.
+ */
+class AuthServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deactivationInvalidatesStatusAfterCommit() {
+        User nutritionist = authService.createNutritionist(User.builder()
+                .email("nutri@auth.test").password("nutri-auth").firstName("Ana").lastName("Torres")
+                .build());
+        String email = nutritionist.getEmail();
+        assertTrue(userStatusCache.get(email).orElseThrow().active());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            authService.updateNutritionist(nutritionist.getId(), User.builder()
+                    .firstName("Ana").lastName("Torres").active(false).build());
+            // Otra petición, antes del commit, todavía ve al usuario activo y lo vuelve a cachear
+            boolean activeBeforeCommit = CompletableFuture
+                    .supplyAsync(() -> userStatusCache.get(email).orElseThrow().active())
+                    .join();
+            assertTrue(activeBeforeCommit);
+        });
+
+        assertFalse(userStatusCache.get(email).orElseThrow().active());
+    }
+
+    @Test
+    void creationReplacesCachedAbsence() {
+        String email = "nueva@auth.test";
+        assertTrue(userStatusCache.get(email).isEmpty());
+
+        authService.createNutritionist(User.builder()
+                .email(email).password("nueva-auth").firstName("Eva").lastName("Ruiz")
+                .build());
+
+        assertTrue(userStatusCache.get(email).orElseThrow().active());
+    }
+}
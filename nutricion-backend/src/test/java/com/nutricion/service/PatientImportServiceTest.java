@@ -0,0 +1,108 @@
+package com.nutricion.service;
+
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.PatientDTO;
+import com.nutricion.dto.PatientImportErrorDTO;
+import com.nutricion.dto.PatientImportReportDTO;
+import com.nutricion.entity.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Importación CSV/NDJSON: las filas válidas se guardan y cada rechazada se
+ * informa con su motivo real, sin confundir otros fallos de la BD con emails duplicados.
+ */
+class PatientImportServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private PatientImportService patientImportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void reportsEachRejectedRowWithItsReason() throws Exception {
+        patientService.createPatient(PatientDTO.builder()
+                .firstName("Ana").lastName("Torres").email("existente@import.test").phone("0999")
+                .dateOfBirth(LocalDate.of(1990, 1, 1)).gender("F").address("Loja")
+                .build());
+        String csv = "firstName,lastName,email,phone,dateOfBirth,gender,address\n"
+                + "Ana,Torres,nueva@import.test,0999,1990-01-01,F,Loja\n"
+                + "Luis,Paz,existente@import.test,0999,1990-01-01,M,Loja\n"
+                + "Luis,Paz,nueva@import.test,0999,1990-01-01,M,Loja\n"
+                + "Eva,Ruiz,larga@import.test,0999,1990-01-01,F," + "x".repeat(256) + "\n"
+                + "Eva,Ruiz,fecha@import.test,0999,01/01/1990,F,Loja\n";
+
+        PatientImportReportDTO report = patientImportService.importPatients(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), PatientImportService.Format.CSV);
+
+        assertEquals(5, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        List<PatientImportErrorDTO> errors = report.getErrors();
+        assertEquals(List.of(3L, 4L, 5L, 6L), errors.stream().map(PatientImportErrorDTO::getRow).toList());
+        assertEquals("Email ya registrado", errors.get(0).getMessage());
+        assertEquals("Email duplicado en el archivo", errors.get(1).getMessage());
+        assertEquals("address supera los 255 caracteres", errors.get(2).getMessage());
+        assertEquals("dateOfBirth debe tener formato AAAA-MM-DD", errors.get(3).getMessage());
+    }
+
+    @Test
+    void validatesClinicalHistoryLengthsInNdjson() throws Exception {
+        String ndjson = "{\"firstName\":\"Ana\",\"lastName\":\"Torres\",\"email\":\"historia@import.test\","
+                + "\"phone\":\"0999\",\"dateOfBirth\":\"1990-01-01\",\"gender\":\"F\",\"address\":\"Loja\","
+                + "\"clinicalHistory\":{\"tobaccoUse\":\"" + "x".repeat(300) + "\"}}\n";
+
+        PatientImportReportDTO report = patientImportService.importPatients(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), PatientImportService.Format.NDJSON);
+
+        assertEquals(0, report.getImported());
+        assertEquals("clinicalHistory.tobaccoUse supera los 255 caracteres", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void leavesNothingManagedInTheRequestEntityManager() throws Exception {
+        // Como open-session-in-view: un EntityManager ligado al hilo que los commits no vacían
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            String csv = "firstName,lastName,email,phone,dateOfBirth,gender,address\n"
+                    + "Ana,Torres,sesion-1@import.test,0999,1990-01-01,F,Loja\n"
+                    + "Luis,Paz,sesion-2@import.test,0999,1990-01-01,M,Loja\n";
+
+            PatientImportReportDTO report = patientImportService.importPatients(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), PatientImportService.Format.CSV);
+
+            assertEquals(2, report.getImported());
+            assertEquals(0, requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+    }
+
+    @Test
+    void onlyTheEmailConstraintCountsAsDuplicate() {
+        SQLException sql = new SQLException("violación de restricción");
+        assertEquals("Email ya registrado", PatientImportService.describeFailure(new DataIntegrityViolationException(
+                "duplicado", new ConstraintViolationException("duplicado", sql, Patient.EMAIL_CONSTRAINT))));
+
+        // El texto de la BD (SQL, columnas, valores) solo va al log
+        assertEquals("No se pudo guardar la fila", PatientImportService.describeFailure(new DataIntegrityViolationException(
+                "otra", new ConstraintViolationException("otra", new SQLException("valor demasiado largo"), "otra"))));
+    }
+}
@@ -0,0 +1,89 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.config.BinaryEncodingConfig;
+import com.nutricion.config.SecondLevelCacheConfig;
+import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.ClinicalHistoryDTO;
+import com.nutricion.dto.PatientDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * La exportación escribe las entidades con PatientJsonWriter; cada línea debe ser
+ * idéntica a serializar el PatientDTO del mismo paciente.
+ */
+@DataJpaTest
+@Import({PatientService.class, PatientSearchService.class, ClinicalHistorySearchService.class,
+        PatientResponseCache.class, BinaryEncodingConfig.class, SecondLevelCacheConfig.class, JacksonAutoConfiguration.class})
+class PatientJsonWriterTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void exportMatchesDtoSerializationByteForByte() throws Exception {
+        PatientDTO minimal = patientService.createPatient(patient("minimo@example.com", null));
+
+        PatientDTO complete = patientService.createPatient(patient("completo@example.com", "Nutricionista"));
+        patientService.updateClinicalHistory(complete.getId(), ClinicalHistoryDTO.builder()
+                .allergies("Penicilina \"grave\"\nurticaria")
+                .notes("Señal de alarma: ñandú <b>&</b> é fin")
+                .build());
+        patientService.updateBiometrics(complete.getId(), BiometricsDTO.builder()
+                .glucose(92.0).hemoglobinA1c(5.4).ldlCholesterol(1e-7).platelets(250000.0)
+                .ferritin(1.0E10).phosphorus(3.333333333333333)
+                .measuredDate(LocalDate.of(2024, 2, 29))
+                .build());
+        patientService.updateAnthropometry(complete.getId(), AnthropometryDTO.builder()
+                .weight(68.5).height(1.65).waistCircumference(80.0).hipCircumference(97.0)
+                .build());
+
+        PatientDTO onlyAnthropometry = patientService.createPatient(patient("antropo@example.com", null));
+        patientService.updateAnthropometry(onlyAnthropometry.getId(), AnthropometryDTO.builder().weight(80.0).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        patientService.exportPatients(out);
+        entityManager.clear();
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        List<Long> ids = List.of(minimal.getId(), complete.getId(), onlyAnthropometry.getId());
+        assertEquals(ids.size(), lines.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(objectMapper.writeValueAsString(patientService.getPatientById(ids.get(i))), lines.get(i));
+        }
+    }
+
+    private static PatientDTO patient(String email, String occupation) {
+        return PatientDTO.builder()
+                .firstName("José")
+                .lastName("Pérez")
+                .email(email)
+                .phone("0999000000")
+                .dateOfBirth(LocalDate.of(1985, 5, 20))
+                .gender("M")
+                .address("Av. Principal 456")
+                .occupation(occupation)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nutricion.dto.PatientDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PatientResponseCacheTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final PatientResponseCache cache = new PatientResponseCache(json,
+            new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()),
+            new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build()),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+            DataSize.ofMegabytes(1));
+
+    @Test
+    void negotiatesLikeAcceptWithJsonAsDefault() {
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_CBOR, cache.negotiate("application/cbor"));
+        assertEquals(SMILE, cache.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("text/html, application/*;q=0.8"));
+        assertNull(cache.negotiate("text/html"));
+        assertNull(cache.negotiate("application/json;q=0"));
+        assertNull(cache.negotiate("no es un tipo"));
+    }
+
+    @Test
+    void servesOnlyTheCachedVersionAndKeepsTheNewest() throws Exception {
+        PatientDTO v2 = patient(2, "Ana");
+        PatientDTO v1 = patient(1, "Anterior");
+
+        byte[] body = cache.put(v2, MediaType.APPLICATION_JSON);
+        assertArrayEquals(json.writeValueAsBytes(v2), body);
+        assertArrayEquals(body, cache.get(7L, 2, MediaType.APPLICATION_JSON));
+        assertNull(cache.get(7L, 2, MediaType.APPLICATION_CBOR));
+        assertNull(cache.get(7L, 3, MediaType.APPLICATION_JSON));
+
+        // Una lectura que cargó la versión anterior y llega tarde no pisa la nueva
+        cache.put(v1, MediaType.APPLICATION_JSON);
+        assertNull(cache.get(7L, 1, MediaType.APPLICATION_JSON));
+        assertArrayEquals(body, cache.get(7L, 2, MediaType.APPLICATION_JSON));
+
+        // Fuera de una transacción se descarta en el acto
+        cache.evictAfterCommit(7L);
+        assertNull(cache.get(7L, 2, MediaType.APPLICATION_JSON));
+    }
+
+    private static PatientDTO patient(long version, String firstName) {
+        return PatientDTO.builder().id(7L).firstName(firstName).version(version).build();
+    }
+}
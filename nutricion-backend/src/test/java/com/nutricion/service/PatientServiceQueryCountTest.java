@@ -0,0 +1,226 @@
+package com.nutricion.service;
+
+import com.nutricion.config.BinaryEncodingConfig;
+import com.nutricion.config.SecondLevelCacheConfig;
+import com.nutricion.dto.AnthropometryDTO;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.PatientDTO;
+import com.nutricion.dto.PatientFieldsPageDTO;
+import com.nutricion.dto.PatientPageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica que las lecturas de pacientes emiten un número fijo de sentencias SQL,
+ * sin importar cuántos pacientes ni cuántas secciones (historial, biometría,
+ * antropometría) tengan cargadas.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PatientService.class, PatientFieldsService.class, PatientSearchService.class, ClinicalHistorySearchService.class,
+        PatientResponseCache.class, BinaryEncodingConfig.class, SecondLevelCacheConfig.class, JacksonAutoConfiguration.class})
+class PatientServiceQueryCountTest {
+
+    private static final int PATIENTS = 8;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PatientFieldsService patientFieldsService;
+
+    private Statistics statistics;
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PATIENTS; i++) {
+            PatientDTO created = patientService.createPatient(PatientDTO.builder()
+                    .firstName("Paciente")
+                    .lastName("Apellido" + i)
+                    .email("paciente" + i + "@example.com")
+                    .phone("0999000000")
+                    .dateOfBirth(LocalDate.of(1990, 1, 1))
+                    .gender("F")
+                    .address("Loja")
+                    .build());
+            patientService.updateBiometrics(created.getId(), BiometricsDTO.builder().glucose(90.0).build());
+            patientService.updateAnthropometry(created.getId(),
+                    AnthropometryDTO.builder().weight(70.0).height(1.70).build());
+            if (firstId == null) {
+                firstId = created.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Lecturas en frío: la caché de segundo nivel se prueba aparte
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getPatientByIdUsesSingleStatement() {
+        PatientDTO patient = patientService.getPatientById(firstId);
+
+        assertNotNull(patient.getBiometrics());
+        assertNotNull(patient.getAnthropometry());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updatesAreVisibleThroughSecondLevelCache() {
+        patientService.getPatientById(firstId);
+        entityManager.clear();
+
+        patientService.updateBiometrics(firstId, BiometricsDTO.builder().glucose(120.0).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(120.0, patientService.getPatientById(firstId).getBiometrics().getGlucose());
+    }
+
+    @Test
+    void getAllPatientsUsesSingleStatementPerPage() {
+        PatientPageDTO page = patientService.getAllPatients(null, PATIENTS, "lastName", "asc");
+
+        assertEquals(PATIENTS, page.getContent().size());
+        page.getContent().forEach(p -> assertNotNull(p.getClinicalHistory()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void biometricsHistoryKeepsEveryPanelAndReadsInSingleStatement() {
+        LocalDate today = LocalDate.now();
+        patientService.updateBiometrics(firstId, BiometricsDTO.builder()
+                .glucose(110.0).ferritin(35.5).measuredDate(today.plusDays(1)).build());
+        // Panel antiguo cargado después: entra en el historial pero no reemplaza al actual
+        patientService.updateBiometrics(firstId, BiometricsDTO.builder()
+                .glucose(80.0).measuredDate(today.minusYears(1)).build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<BiometricsDTO> history = patientService.getBiometricsHistory(firstId, 10, null, null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, history.size());
+        assertEquals(110.0, history.get(0).getGlucose());
+        assertEquals(35.5, history.get(0).getFerritin());
+        assertNull(history.get(0).getHemoglobin());
+        assertEquals(today.minusYears(1), history.get(2).getMeasuredDate());
+        assertEquals(110.0, patientService.getPatientById(firstId).getBiometrics().getGlucose());
+
+        List<BiometricsDTO> lastYear = patientService.getBiometricsHistory(
+                firstId, 10, today.minusYears(2), today.minusDays(1));
+        assertEquals(1, lastYear.size());
+        assertEquals(80.0, lastYear.get(0).getGlucose());
+    }
+
+    @Test
+    void patchBiometricsSectionOnlyMergesWithoutReadingOtherSections() throws Exception {
+        patientService.patchBiometrics(firstId, objectMapper.readTree("{\"ldlCholesterol\": 130.0}"), true);
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        PatientDTO result = patientService.patchBiometrics(firstId,
+                objectMapper.readTree("{\"glucose\": 101.0, \"ldlCholesterol\": null}"), true);
+        entityManager.flush();
+
+        // Paciente, biometría y su panel; UPDATE de la biometría, del panel y de la versión; sin antropometría
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertNull(result.getClinicalHistory());
+        assertEquals(101.0, result.getBiometrics().getGlucose());
+        assertNull(result.getBiometrics().getLdlCholesterol());
+
+        entityManager.clear();
+        PatientDTO patient = patientService.getPatientById(firstId);
+        assertEquals(101.0, patient.getBiometrics().getGlucose());
+        assertEquals(result.getVersion(), patient.getVersion());
+        assertEquals(70.0, patient.getAnthropometry().getWeight());
+    }
+
+    @Test
+    void patchCorrectsTheHistoryEntryOfTheCurrentValues() throws Exception {
+        patientService.patchBiometrics(firstId, objectMapper.readTree("{\"glucose\": 101.0}"), true);
+        patientService.patchAnthropometry(firstId, objectMapper.readTree("{\"weight\": 72.0}"), true);
+        // Sin secciones previas el PATCH crea la primera entrada del historial
+        Long newId = patientService.createPatient(PatientDTO.builder()
+                .firstName("Paciente").lastName("Nuevo").email("nuevo@example.com").phone("0999000000")
+                .dateOfBirth(LocalDate.of(1990, 1, 1)).gender("F").address("Loja")
+                .build()).getId();
+        patientService.patchBiometrics(newId, objectMapper.readTree("{\"glucose\": 88.0}"), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BiometricsDTO> history = patientService.getBiometricsHistory(firstId, 10, null, null);
+        assertEquals(1, history.size());
+        assertEquals(101.0, history.get(0).getGlucose());
+        assertEquals(List.of(72.0), entityManager.createQuery(
+                        "SELECT m.weight FROM AnthropometryMeasurement m WHERE m.patient.id = :id", Double.class)
+                .setParameter("id", firstId)
+                .getResultList());
+        assertEquals(88.0, patientService.getBiometricsHistory(newId, 10, null, null).get(0).getGlucose());
+    }
+
+    @Test
+    void patchRejectsReadOnlyAndUnknownFields() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.patchAnthropometry(firstId,
+                objectMapper.readTree("{\"bmi\": 20.0}"), true));
+        assertThrows(IllegalArgumentException.class, () -> patientService.patchBiometrics(firstId,
+                objectMapper.readTree("{\"glucosa\": 90.0}"), true));
+        assertThrows(IllegalArgumentException.class, () -> patientService.patchClinicalHistory(firstId,
+                objectMapper.readTree("[]"), true));
+    }
+
+    @Test
+    void sparseFieldsProjectOnlyRequestedColumnsInSingleStatement() {
+        PatientFieldsPageDTO page = patientFieldsService.getAllPatients(null, PATIENTS / 2, "lastName", "asc",
+                "firstName,email,biometrics.glucose");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(PATIENTS / 2, page.getContent().size());
+        Map<String, Object> first = page.getContent().get(0);
+        assertEquals(List.of("firstName", "email", "biometrics"), List.copyOf(first.keySet()));
+        assertEquals(Map.of("glucose", 90.0), first.get("biometrics"));
+
+        // Los cursores son los mismos que los de la lista completa
+        PatientFieldsPageDTO second = patientFieldsService.getAllPatients(page.getNext(), PATIENTS / 2, null, null, "lastName");
+        PatientPageDTO full = patientService.getAllPatients(page.getNext(), PATIENTS / 2, null, null);
+        assertEquals(full.getContent().stream().map(PatientDTO::getLastName).toList(),
+                second.getContent().stream().map(p -> p.get("lastName")).toList());
+        assertNull(second.getNext());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> patientFieldsService.getPatient(firstId, "firstName,biometrics.glucosa"));
+    }
+}
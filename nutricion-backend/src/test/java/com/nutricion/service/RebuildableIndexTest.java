@@ -0,0 +1,44 @@
+package com.nutricion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RebuildableIndexTest {
+
+    @Test
+    void replaysChangesReceivedDuringRebuild() {
+        List<String> initial = new ArrayList<>(List.of("a"));
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(initial);
+
+        List<String> replaced = index.rebuild(() -> {
+            // Llega mientras se carga: la carga ya no lo ve
+            index.apply(list -> list.add("b"));
+            return new ArrayList<>(List.of("a"));
+        });
+
+        assertSame(initial, replaced);
+        assertEquals(List.of("a", "b"), index.get());
+
+        // Terminada la reconstrucción los cambios ya no se guardan para reaplicar
+        index.apply(list -> list.add("c"));
+        assertEquals(List.of("a", "b", "c"), index.get());
+    }
+
+    @Test
+    void keepsCurrentIndexWhenLoadFails() {
+        List<String> initial = new ArrayList<>(List.of("a"));
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(initial);
+
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            throw new IllegalStateException("BD no disponible");
+        }));
+
+        assertSame(initial, index.get());
+    }
+}
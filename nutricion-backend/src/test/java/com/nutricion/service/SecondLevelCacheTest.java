@@ -0,0 +1,121 @@
+package com.nutricion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutricion.IntegrationTestSupport;
+import com.nutricion.dto.BiometricsDTO;
+import com.nutricion.dto.PatientDTO;
+import com.nutricion.entity.Biometrics;
+import com.nutricion.entity.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caché de segundo nivel con transacciones reales: READ_WRITE solo publica los
+ * cambios al confirmar, así que esto no puede probarse dentro de un @DataJpaTest.
+ */
+class SecondLevelCacheTest extends IntegrationTestSupport {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        id = createPatient("Cache");
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(90.0).build());
+        // Primera lectura en frío: una consulta con el grafo que deja las cuatro entidades en caché
+        entityManagerFactory.getCache().evictAll();
+        patientService.getPatientById(id);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void warmReadRunsNoSql() {
+        PatientDTO patient = patientService.getPatientById(id);
+
+        assertEquals(90.0, patient.getBiometrics().getGlucose());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        // Paciente, historial y biometría; sin antropometría no hay cuarta entidad
+        assertEquals(3, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void updateReplacesCachedEntryOnCommit() {
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(120.0).build());
+        statistics.clear();
+
+        PatientDTO patient = patientService.getPatientById(id);
+
+        assertEquals(120.0, patient.getBiometrics().getGlucose());
+        // Las secciones se reemplazan en caché; la entrada del paciente la invalida el
+        // incremento forzado de versión, así que hay una consulta para recargarlo
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patchReplacesCachedSectionOnCommit() throws Exception {
+        patientService.patchBiometrics(id, objectMapper.readTree("{\"glucose\":130.0}"), true);
+        statistics.clear();
+
+        PatientDTO patient = patientService.getPatientById(id);
+
+        // Con @DynamicUpdate la sección también se reemplaza (está versionada): solo se recarga el paciente
+        assertEquals(130.0, patient.getBiometrics().getGlucose());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        patientService.getPatientById(id);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sectionUpdateBumpsVersionSeenThroughCache() {
+        long before = patientService.getPatientVersion(id);
+
+        PatientDTO updated = patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(100.0).build());
+        patientService.getPatientById(id);
+        statistics.clear();
+
+        assertTrue(updated.getVersion() > before);
+        assertEquals(updated.getVersion(), patientService.getPatientById(id).getVersion());
+        assertEquals(updated.getVersion(), patientService.getPatientVersion(id));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sectionUpdateReloadsOnlyThePatient() {
+        patientService.updateBiometrics(id, BiometricsDTO.builder().glucose(105.0).build());
+        statistics.clear();
+
+        patientService.getPatientById(id);
+
+        // La consulta de updateReplacesCachedEntryOnCommit es la del paciente: el incremento de
+        // versión se hace con SQL directo, fuera del ciclo de la entidad, y Hibernate no puede
+        // reemplazar su entrada, solo invalidarla. Las secciones siguen saliendo de la caché
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Patient.class.getName()).getMissCount());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(Biometrics.class.getName()).getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Biometrics.class.getName()).getHitCount());
+    }
+
+    @Test
+    void deletedPatientIsNotServedFromCache() {
+        patientService.deletePatient(id);
+
+        assertThrows(RuntimeException.class, () -> patientService.getPatientById(id));
+    }
+}
@@ -0,0 +1,57 @@
+package com.nutricion.service;
+
+import com.nutricion.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un jti revocado se rechaza, también si la revocación llega mientras se
+ * reconstruye el filtro de Bloom.
+ */
+class TokenRevocationServiceTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenRevocationService service = new TokenRevocationService(repository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "expectedTokens", 1_000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        when(repository.findActiveJtis(any())).thenReturn(List.of());
+        service.init();
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        when(repository.existsByJti("revocado")).thenReturn(true);
+
+        service.revoke("revocado", Instant.now().plusSeconds(60));
+
+        assertTrue(service.isRevoked("revocado"));
+        assertFalse(service.isRevoked("vigente"));
+    }
+
+    @Test
+    void revocationDuringRebuildSurvivesTheSwap() {
+        when(repository.existsByJti("durante")).thenReturn(true);
+        // La revocación confirma después de que la carga leyó la tabla: no viene en la lista
+        when(repository.findActiveJtis(any())).thenAnswer(invocation -> {
+            service.revoke("durante", Instant.now().plusSeconds(60));
+            return List.of();
+        });
+
+        service.rebuild();
+
+        assertTrue(service.isRevoked("durante"));
+    }
+}
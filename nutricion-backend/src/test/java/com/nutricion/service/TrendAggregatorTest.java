@@ -0,0 +1,59 @@
+package com.nutricion.service;
+
+import com.nutricion.dto.TrendPointDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrendAggregatorTest {
+
+    @Test
+    void weeklyBucketsStartOnMondayWithMinMaxAvg() {
+        TrendAggregator aggregator = TrendAggregator.weekly();
+        // 2024-01-01 es lunes
+        aggregator.accept(LocalDate.of(2024, 1, 1), 80.0);
+        aggregator.accept(LocalDate.of(2024, 1, 7), 78.0);
+        aggregator.accept(LocalDate.of(2024, 1, 8), 77.0);
+
+        List<TrendPointDTO> points = aggregator.finish();
+
+        assertEquals(2, points.size());
+        assertEquals(LocalDate.of(2024, 1, 1), points.get(0).getDate());
+        assertEquals(79.0, points.get(0).getValue());
+        assertEquals(78.0, points.get(0).getMin());
+        assertEquals(80.0, points.get(0).getMax());
+        assertEquals(2, points.get(0).getCount());
+        assertEquals(LocalDate.of(2024, 1, 8), points.get(1).getDate());
+    }
+
+    @Test
+    void lttbKeepsThresholdPointsIncludingEndsAndPeaks() {
+        int total = 1000;
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        TrendAggregator aggregator = TrendAggregator.lttb(total, 50);
+        for (int i = 0; i < total; i++) {
+            // Serie plana con un pico aislado: LTTB debe conservarlo
+            aggregator.accept(start.plusDays(i), i == 500 ? 120.0 : 70.0);
+        }
+
+        List<TrendPointDTO> points = aggregator.finish();
+
+        assertEquals(50, points.size());
+        assertEquals(start, points.get(0).getDate());
+        assertEquals(start.plusDays(total - 1), points.get(points.size() - 1).getDate());
+        assertEquals(1, points.stream().filter(p -> p.getValue() == 120.0).count());
+    }
+
+    @Test
+    void lttbReturnsShortSeriesUnchanged() {
+        TrendAggregator aggregator = TrendAggregator.lttb(3, 100);
+        aggregator.accept(LocalDate.of(2024, 1, 1), 1.0);
+        aggregator.accept(LocalDate.of(2024, 2, 1), 2.0);
+        aggregator.accept(LocalDate.of(2024, 3, 1), 3.0);
+
+        assertEquals(3, aggregator.finish().size());
+    }
+}